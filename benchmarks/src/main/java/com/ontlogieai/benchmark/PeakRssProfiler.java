@@ -0,0 +1,65 @@
+package com.ontlogieai.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reports the peak resident set size of the benchmark JVM per iteration, read from {@code VmHWM} in
+ * {@code /proc/self/status}. The high-water mark is reset before each iteration where the kernel allows it, so
+ * the value belongs to the iteration rather than to the whole fork. Linux only; reports nothing elsewhere.
+ * Enable with {@code -prof com.ontlogieai.benchmark.PeakRssProfiler}.
+ */
+public class PeakRssProfiler implements InternalProfiler {
+
+    private static final Path STATUS = Path.of("/proc/self/status");
+    private static final Path CLEAR_REFS = Path.of("/proc/self/clear_refs");
+
+    @Override
+    public String getDescription() {
+        return "Peak resident set size (VmHWM) per iteration";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        try {
+            // "5" resets the peak RSS counter to the current RSS.
+            Files.writeString(CLEAR_REFS, "5");
+        } catch (IOException | SecurityException e) {
+            // Older kernels or restricted containers: the value then covers the fork up to this iteration.
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long peakKb = readPeakKb();
+        if (peakKb < 0) {
+            return List.of();
+        }
+        return List.of(new ScalarResult("rss.peak", peakKb / 1024.0, "MB", AggregationPolicy.MAX));
+    }
+
+    private static long readPeakKb() {
+        try {
+            for (String line : Files.readAllLines(STATUS)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not on Linux or unexpected format.
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ontlogieai.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks with the gc and peak RSS profilers and compares the results with a stored baseline.
+ * Exits with 1 when any benchmark's score, or its normalized allocation rate, is worse than the baseline by more
+ * than the threshold. Without a baseline file the results are stored as the new baseline.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.ontlogieai.benchmark.RegressionGate \
+ *      [--baseline benchmark-baseline.json] [--threshold 10] [--update-baseline] [-- &lt;JMH options&gt;]
+ * </pre>
+ */
+public class RegressionGate {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private final double thresholdPercent;
+
+    private record Regression(String benchmark, String metric, double baseline, double current, double changePercent) {
+    }
+
+    RegressionGate(double thresholdPercent) {
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException, CommandLineOptionException {
+        File baseline = new File("benchmark-baseline.json");
+        double threshold = 10.0;
+        boolean updateBaseline = false;
+        List<String> jmhArgs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> baseline = new File(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--update-baseline" -> updateBaseline = true;
+                case "--" -> {
+                    jmhArgs.addAll(List.of(args).subList(i + 1, args.length));
+                    i = args.length;
+                }
+                default -> jmhArgs.add(args[i]);
+            }
+        }
+
+        File current = File.createTempFile("jmh-result", ".json");
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+                .addProfiler(GCProfiler.class)
+                .addProfiler(PeakRssProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(current.getPath())
+                .build()).run();
+
+        if (updateBaseline || !baseline.isFile()) {
+            Files.copy(current.toPath(), baseline.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Stored results as baseline " + baseline.getAbsolutePath());
+            System.exit(0);
+        }
+
+        List<Regression> regressions = new RegressionGate(threshold).compare(baseline, current);
+        if (regressions.isEmpty()) {
+            System.out.printf("No regression beyond %.1f%% against %s%n", threshold, baseline);
+            System.exit(0);
+        }
+        System.out.printf("%d regression(s) beyond %.1f%% against %s:%n", regressions.size(), threshold, baseline);
+        for (Regression regression : regressions) {
+            System.out.printf("  %-80s %-20s %14.3f -> %14.3f (%+.1f%%)%n", regression.benchmark(), regression.metric(),
+                    regression.baseline(), regression.current(), regression.changePercent());
+        }
+        System.exit(1);
+    }
+
+    List<Regression> compare(File baselineFile, File currentFile) throws IOException {
+        Map<String, JsonNode> baseline = readResults(baselineFile);
+        Map<String, JsonNode> current = readResults(currentFile);
+        List<Regression> regressions = new ArrayList<>();
+
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            // Throughput scores are better when higher, all other modes report time and are better when lower.
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            check(entry.getKey(), "score", before.path("primaryMetric"), after.path("primaryMetric"), higherIsBetter, regressions);
+            check(entry.getKey(), ALLOCATION_METRIC, before.path("secondaryMetrics").path(ALLOCATION_METRIC),
+                    after.path("secondaryMetrics").path(ALLOCATION_METRIC), false, regressions);
+        }
+        return regressions;
+    }
+
+    private void check(String benchmark, String metric, JsonNode before, JsonNode after, boolean higherIsBetter,
+                       List<Regression> regressions) {
+        if (!before.has("score") || !after.has("score")) {
+            return;
+        }
+        double baselineScore = before.get("score").asDouble();
+        double currentScore = after.get("score").asDouble();
+        if (baselineScore == 0) {
+            return;
+        }
+        double changePercent = (currentScore - baselineScore) / baselineScore * 100.0;
+        double worsePercent = higherIsBetter ? -changePercent : changePercent;
+        if (worsePercent > thresholdPercent) {
+            regressions.add(new Regression(benchmark, metric, baselineScore, currentScore, changePercent));
+        }
+    }
+
+    /**
+     * Reads a JMH JSON result file, keyed by benchmark name, mode and parameters.
+     */
+    private static Map<String, JsonNode> readResults(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            fields.forEachRemaining(field -> params.put(field.getKey(), field.getValue().asText()));
+            String key = result.path("benchmark").asText() + " [" + result.path("mode").asText() + "]"
+                    + (params.isEmpty() ? "" : " " + params);
+            results.put(key, result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ontlogieai.reference;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start cost of getting the reference data: parsing the reference workbook with POI versus loading a
+ * {@link ReferenceSnapshot}. Every fork measures one first call, so class loading and JIT warm-up are included,
+ * as they are for a CLI or batch invocation. Compare with and without {@code -jvmArgsAppend
+ * -XX:SharedArchiveFile=target/DVLtoAPL.jsa} for the effect of the AppCDS archive from {@code scripts/appcds.sh}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ReferenceStartupBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Workbook {
+        byte[] content;
+        String checksum;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            content = ReferenceDataCache.readReferenceFile();
+            checksum = ReferenceDataCache.checksum(content);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Snapshot {
+        Path file;
+        String checksum;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            byte[] content = ReferenceDataCache.readReferenceFile();
+            checksum = ReferenceDataCache.checksum(content);
+            file = Files.createTempFile("reference", ReferenceSnapshot.FILE_SUFFIX);
+            // Loads POI before the measurement; loadSnapshot itself only touches CellType.
+            ReferenceSnapshot.write(ReferenceData.parse(content, checksum), file);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public ReferenceData parseWorkbook(Workbook workbook) throws IOException {
+        return ReferenceData.parse(workbook.content, workbook.checksum);
+    }
+
+    @Benchmark
+    public ReferenceData loadSnapshot(Snapshot snapshot) {
+        return ReferenceSnapshot.load(snapshot.file, snapshot.checksum);
+    }
+}
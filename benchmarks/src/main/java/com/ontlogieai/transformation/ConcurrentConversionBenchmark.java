@@ -0,0 +1,120 @@
+package com.ontlogieai.transformation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Stress check for a shared {@link ExcelProcessor}: runs {@code conversions} conversions of the sample DVL files
+ * concurrently on one processor instance and fails if any output differs from the single-threaded output of the
+ * same file. Outputs are compared part by part; docProps/core.xml carries the creation timestamp and is skipped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentConversionBenchmark {
+
+    private static final String TIMESTAMPED_PART = "docProps/core.xml";
+
+    @Param({"../data"})
+    public String dataDir;
+
+    @Param({"16"})
+    public int conversions;
+
+    @Param({"4"})
+    public int threads;
+
+    private ExcelProcessor processor;
+    private List<File> inputs;
+    private Map<File, Map<String, byte[]>> expectedParts;
+    private File workDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        processor = new ExcelProcessor();
+        File[] files = new File(dataDir).listFiles((dir, name) -> name.endsWith(".xlsx") && !name.startsWith("~$"));
+        if (files == null || files.length == 0) {
+            throw new IllegalStateException("No sample .xlsx files in " + new File(dataDir).getAbsolutePath());
+        }
+        inputs = new ArrayList<>(List.of(files));
+        inputs.sort(Comparator.naturalOrder());
+        workDir = Files.createTempDirectory("dvl-stress").toFile();
+
+        expectedParts = new HashMap<>();
+        for (File input : inputs) {
+            File output = new File(workDir, "expected_" + input.getName());
+            processor.readAndWriteExcelFile(input, output);
+            expectedParts.put(input, readParts(output));
+        }
+    }
+
+    @Benchmark
+    public void concurrentConversions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(conversions);
+            for (int i = 0; i < conversions; i++) {
+                File input = inputs.get(i % inputs.size());
+                File output = new File(workDir, "run" + i + "_" + input.getName());
+                futures.add(executor.submit(() -> {
+                    processor.readAndWriteExcelFile(input, output);
+                    assertSameParts(input, output);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = workDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        workDir.delete();
+    }
+
+    private void assertSameParts(File input, File output) throws IOException {
+        Map<String, byte[]> expected = expectedParts.get(input);
+        Map<String, byte[]> actual = readParts(output);
+        if (!expected.keySet().equals(actual.keySet())) {
+            throw new AssertionError("Parts differ for " + input.getName() + ": " + expected.keySet() + " vs " + actual.keySet());
+        }
+        for (Map.Entry<String, byte[]> part : expected.entrySet()) {
+            if (!Arrays.equals(part.getValue(), actual.get(part.getKey()))) {
+                throw new AssertionError("Concurrent output of " + input.getName() + " differs in " + part.getKey());
+            }
+        }
+    }
+
+    static Map<String, byte[]> readParts(File xlsx) throws IOException {
+        Map<String, byte[]> parts = new TreeMap<>();
+        try (ZipFile zip = new ZipFile(xlsx)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (TIMESTAMPED_PART.equals(entry.getName())) continue;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    parts.put(entry.getName(), in.readAllBytes());
+                }
+            }
+        }
+        return parts;
+    }
+}
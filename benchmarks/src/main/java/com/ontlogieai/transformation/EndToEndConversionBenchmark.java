@@ -0,0 +1,76 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.reference.ReferenceDataCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ExcelProcessor#readAndWriteExcelFile} end to end. {@code input=sample} converts every workbook
+ * in {@code data/} per operation; a number converts a generated DVL workbook with that many device rows.
+ * Run with {@code -prof gc -prof com.ontlogieai.benchmark.PeakRssProfiler} for allocation rate and peak RSS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class EndToEndConversionBenchmark {
+
+    private static final String SAMPLE = "sample";
+
+    @Param({"../data"})
+    public String dataDir;
+
+    @Param({SAMPLE, "1000", "10000", "100000"})
+    public String input;
+
+    private ExcelProcessor processor;
+    private File workDir;
+    private File[] inputs;
+    private File output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        processor = new ExcelProcessor();
+        // Loaded here so that the first measured operation does not pay for parsing the reference workbook.
+        ReferenceDataCache.get();
+        workDir = Files.createTempDirectory("dvl-e2e").toFile();
+        output = new File(workDir, "Processed.xlsx");
+
+        if (SAMPLE.equals(input)) {
+            inputs = SampleDvlRows.sampleFiles(dataDir);
+        } else {
+            List<DvlRow> samples = SampleDvlRows.load(dataDir, ConfigurationReader.getConfiguration());
+            File generated = new File(workDir, "generated-" + input + ".xlsx");
+            SampleDvlRows.generate(samples, Integer.parseInt(input), generated);
+            inputs = new File[]{generated};
+        }
+    }
+
+    @Benchmark
+    public File readAndWriteExcelFile() throws IOException {
+        for (File file : inputs) {
+            processor.readAndWriteExcelFile(file, output);
+        }
+        return output;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = workDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        workDir.delete();
+    }
+}
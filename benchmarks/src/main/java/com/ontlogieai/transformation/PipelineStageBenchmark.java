@@ -0,0 +1,134 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.reference.ReferenceData;
+import com.ontlogieai.reference.ReferenceDataCache;
+import com.ontlogieai.reference.ReferenceIndex;
+import com.ontlogieai.reference.ReferenceRow;
+import com.ontlogieai.reference.ReferenceSheet;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * One benchmark per conversion stage, each processing a single Floormanager row of the sample workbooks per
+ * operation. The rows are cycled in sheet order so that every stage sees the real mix of device types, mapped
+ * and unmapped rows. Stages after the tag mapping only see rows that map to a standard device tag.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineStageBenchmark {
+
+    @Param({"../data"})
+    public String dataDir;
+
+    private Configuration configuration;
+    private DeviceTagMapper deviceTagMapper;
+    private ReferenceIndex referenceIndex;
+    private PointDescriptionRewriter rewriter;
+
+    private DvlRow[] rows;
+    private MappedRow[] mappedRows;
+    private int rowCursor;
+    private int mappedCursor;
+
+    private XSSFWorkbook workbook;
+    private Row outputRow;
+
+    private record MappedRow(DvlRow row, TagResolution resolution, List<RowTemplate> templates,
+                             Matcher matcher, String templatePointDescription) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        configuration = ConfigurationReader.getConfiguration();
+        deviceTagMapper = new DeviceTagMapper();
+        rewriter = new PointDescriptionRewriter(configuration);
+
+        ReferenceData referenceData = ReferenceDataCache.get();
+        ReferenceSheet referenceSheet = referenceData.getSheetAt(1);
+        referenceIndex = referenceSheet.getIndex(referenceSheet.getColumnIndex(ConversionContext.DEVICE_TAG_HEADER));
+
+        rows = SampleDvlRows.load(dataDir, configuration).toArray(new DvlRow[0]);
+        List<MappedRow> mapped = new ArrayList<>();
+        for (DvlRow row : rows) {
+            TagResolution resolution = deviceTagMapper.resolve(configuration, row.deviceTag(), row.pointDescription());
+            List<ReferenceRow> referenceRows = referenceIndex.getRows(resolution.standardDeviceTag());
+            if (!resolution.standardDeviceTag().isEmpty() && !referenceRows.isEmpty()) {
+                List<RowTemplate> templates = referenceRows.stream()
+                        .map(referenceRow -> RowTemplate.compile(configuration, referenceRow, resolution.standardDeviceTag()))
+                        .toList();
+                String template = referenceRows.get(0).getText(configuration.getPointDescriptionIndexInOutputFile());
+                mapped.add(new MappedRow(row, resolution, templates, rewriter.matcher(resolution.descriptorKey()), template));
+            }
+        }
+        if (mapped.isEmpty()) {
+            throw new IllegalStateException("No sample row maps to a reference device tag");
+        }
+        mappedRows = mapped.toArray(new MappedRow[0]);
+
+        // Cells are written over the same row again and again, so the benchmark measures copying, not sheet growth.
+        workbook = new XSSFWorkbook();
+        outputRow = workbook.createSheet("J270-06-demo").createRow(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public String getDeviceType() {
+        return DeviceTagUtility.getDeviceType(nextRow().deviceTag());
+    }
+
+    @Benchmark
+    public String getStandardDeviceTag() {
+        DvlRow row = nextRow();
+        return deviceTagMapper.getStandardDeviceTag(row.deviceTag(), row.pointDescription());
+    }
+
+    @Benchmark
+    public String replaceFirstPart() {
+        MappedRow mapped = nextMappedRow();
+        return PointDescriptionRewriter.rewrite(mapped.matcher(), mapped.row().pointDescription(), mapped.templatePointDescription());
+    }
+
+    @Benchmark
+    public List<ReferenceRow> getMatchingRows() {
+        return referenceIndex.getRows(nextMappedRow().resolution().standardDeviceTag());
+    }
+
+    @Benchmark
+    public Row copyRowData() {
+        MappedRow mapped = nextMappedRow();
+        for (RowTemplate template : mapped.templates()) {
+            template.emit(mapped.row().deviceTag(), mapped.row().pointDescription(), mapped.matcher()).writeTo(outputRow);
+        }
+        return outputRow;
+    }
+
+    private DvlRow nextRow() {
+        DvlRow row = rows[rowCursor];
+        rowCursor = rowCursor + 1 == rows.length ? 0 : rowCursor + 1;
+        return row;
+    }
+
+    private MappedRow nextMappedRow() {
+        MappedRow row = mappedRows[mappedCursor];
+        mappedCursor = mappedCursor + 1 == mappedRows.length ? 0 : mappedCursor + 1;
+        return row;
+    }
+}
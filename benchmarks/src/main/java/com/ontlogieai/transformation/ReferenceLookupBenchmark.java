@@ -0,0 +1,100 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.reference.ReferenceIndex;
+import com.ontlogieai.reference.ReferenceSheet;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former per-row scan of the reference sheet with {@link ReferenceIndex} lookups.
+ * One invocation resolves every DVL row of a conversion against a reference sheet of the given size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceLookupBenchmark {
+
+    private static final int DEVICE_TAG_COLUMN = 3;
+    private static final int ROWS_PER_TAG = 4;
+
+    @Param({"1000", "10000", "100000"})
+    public int referenceRows;
+
+    @Param({"1000", "10000"})
+    public int dvlRows;
+
+    private Workbook workbook;
+    private Sheet referenceSheet;
+    private ReferenceSheet referenceSnapshot;
+    private ReferenceIndex referenceIndex;
+    private String[] lookups;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workbook = new XSSFWorkbook();
+        referenceSheet = workbook.createSheet("J270-06");
+        int tagCount = Math.max(1, referenceRows / ROWS_PER_TAG);
+        for (int i = 0; i < referenceRows; i++) {
+            Row row = referenceSheet.createRow(i);
+            row.createCell(DEVICE_TAG_COLUMN).setCellValue(standardTag(i % tagCount));
+            row.createCell(DEVICE_TAG_COLUMN + 2).setCellValue(standardTag(i % tagCount) + " - Point " + i);
+        }
+        referenceSnapshot = ReferenceSheet.of(referenceSheet);
+        referenceIndex = ReferenceIndex.build(referenceSnapshot, DEVICE_TAG_COLUMN);
+
+        lookups = new String[dvlRows];
+        for (int i = 0; i < dvlRows; i++) {
+            // Every fifth DVL row asks for a tag the reference sheet does not contain.
+            lookups[i] = i % 5 == 0 ? "J999-99-2XX-" + i : standardTag((i * 7) % tagCount).toLowerCase();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (String standardDeviceTag : lookups) {
+            List<Row> matchingRows = new ArrayList<>();
+            for (Row row : referenceSheet) {
+                Cell cell = row.getCell(DEVICE_TAG_COLUMN);
+                String cellValue = cell != null ? cell.getStringCellValue() : "";
+                if (cellValue.equalsIgnoreCase(standardDeviceTag)) {
+                    matchingRows.add(row);
+                }
+            }
+            blackhole.consume(matchingRows);
+        }
+    }
+
+    @Benchmark
+    public void indexedLookup(Blackhole blackhole) {
+        for (String standardDeviceTag : lookups) {
+            blackhole.consume(referenceIndex.getRows(standardDeviceTag));
+        }
+    }
+
+    @Benchmark
+    public ReferenceIndex buildIndex() {
+        return ReferenceIndex.build(referenceSnapshot, DEVICE_TAG_COLUMN);
+    }
+
+    private static String standardTag(int i) {
+        return String.format("J460-01-2TT-%05d", i);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.input.DvlRowHandler;
+import com.ontlogieai.input.DvlSheetReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark input shared by the stage and end-to-end benchmarks: the Floormanager rows of the sample workbooks in
+ * {@code data/}, and generated DVL workbooks of any size built from those rows.
+ */
+final class SampleDvlRows {
+
+    private static final String SHEET_NAME = "Floormanager";
+
+    private SampleDvlRows() {
+    }
+
+    static File[] sampleFiles(String dataDir) {
+        File[] files = new File(dataDir).listFiles((dir, name) -> name.endsWith(".xlsx") && !name.startsWith("~$"));
+        if (files == null || files.length == 0) {
+            throw new IllegalStateException("No sample .xlsx files in " + new File(dataDir).getAbsolutePath());
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Reads the device rows (header and empty rows excluded) of every sample workbook.
+     */
+    static List<DvlRow> load(String dataDir, Configuration configuration) throws IOException {
+        List<DvlRow> rows = new ArrayList<>();
+        for (File file : sampleFiles(dataDir)) {
+            DvlSheetReader reader = DvlSheetReader.forFile(file, true, configuration.getRequiredHeaders());
+            reader.read(file, SHEET_NAME, new DvlRowHandler() {
+                @Override
+                public void startSheet() {
+                }
+
+                @Override
+                public void headerRow(int deviceTagColumnIndex, int pointDescriptorColumnIndex) {
+                }
+
+                @Override
+                public void row(DvlRow row) {
+                    if (!row.deviceTag().isEmpty() && !ConversionContext.DEVICE_TAG_HEADER.equalsIgnoreCase(row.deviceTag())) {
+                        rows.add(row);
+                    }
+                }
+            });
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("Sample workbooks in " + dataDir + " have no Floormanager rows");
+        }
+        return rows;
+    }
+
+    /**
+     * Writes a DVL workbook with {@code rowCount} device rows, cycling through the sample rows and numbering the
+     * device tags so that every generated tag is distinct. Headers sit on the second row like in the real files.
+     */
+    static void generate(List<DvlRow> samples, int rowCount, File target) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (OutputStream out = new FileOutputStream(target)) {
+            Sheet sheet = workbook.createSheet(SHEET_NAME);
+            sheet.createRow(0).createCell(0).setCellValue("Generated DVL, " + rowCount + " rows");
+            Row header = sheet.createRow(1);
+            String[] headers = {"Nr", "Outstation", "Room", "Device Tag", "Point Descriptor"};
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+            for (int i = 0; i < rowCount; i++) {
+                DvlRow sample = samples.get(i % samples.size());
+                Row row = sheet.createRow(i + 2);
+                row.createCell(0).setCellValue(i + 1);
+                row.createCell(3).setCellValue(sample.deviceTag().replaceFirst("\\d+$", String.valueOf(i + 1)));
+                row.createCell(4).setCellValue(sample.pointDescription());
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.config.SheetMapping;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.metrics.ConversionMetrics;
+import com.ontlogieai.reference.ReferenceData;
+import com.ontlogieai.reference.ReferenceDataCache;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Compares {@code Workbook.write} of POI's streaming workbook with {@link ParallelDeflateWorkbook} at the default,
+ * fastest and store-only compression levels. Each operation writes the workbook a conversion of the sample rows in
+ * {@code data/} builds: the copied reference sheets plus the generated sheet, with the sample rows repeated
+ * {@code copies} times. Building the workbook is not measured; the size of the written file is printed after each
+ * trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkbookWriteBenchmark {
+
+    @Param({"../data"})
+    public String dataDir;
+
+    @Param({"poi", "parallel", "parallel-fast", "parallel-store"})
+    public String writer;
+
+    @Param({"1", "20"})
+    public int copies;
+
+    // 0 uses one thread per available processor.
+    @Param({"0"})
+    public int workers;
+
+    private Configuration configuration;
+    private SheetMapping mapping;
+    private ReferenceData referenceData;
+    private List<TransformedRow> rows;
+    private File workDir;
+    private File output;
+    private SXSSFWorkbook workbook;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        configuration = ConfigurationReader.getConfiguration();
+        mapping = configuration.getSheetMappings().get(0);
+        referenceData = ReferenceDataCache.get();
+        ConversionContext context = new ConversionContext(configuration, referenceData, mapping.getReferenceSheet(),
+                null, null, new ConversionMetrics("workbook write benchmark"), List.of());
+        RowTransformer transformer = new RowTransformer(new DeviceTagMapper());
+        rows = new ArrayList<>();
+        for (DvlRow row : SampleDvlRows.load(dataDir, configuration)) {
+            rows.add(transformer.transform(context, row));
+        }
+        workDir = Files.createTempDirectory("dvl-write").toFile();
+        output = new File(workDir, "Processed.xlsx");
+    }
+
+    @Setup(Level.Invocation)
+    public void buildWorkbook() {
+        int window = configuration.getStreamingRowWindow();
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        workbook = switch (writer) {
+            case "poi" -> new SXSSFWorkbook(window);
+            case "parallel" -> new ParallelDeflateWorkbook(window, Deflater.DEFAULT_COMPRESSION, threads);
+            case "parallel-fast" -> new ParallelDeflateWorkbook(window, Deflater.BEST_SPEED, threads);
+            case "parallel-store" -> new ParallelDeflateWorkbook(window, Deflater.NO_COMPRESSION, threads);
+            default -> throw new IllegalArgumentException("Unknown writer " + writer);
+        };
+        workbook.setCompressTempFiles(configuration.isCompressTempFiles());
+        ExcelProcessor.copyReferenceSheets(referenceData, workbook, List.of(mapping));
+        Sheet sheet = workbook.createSheet(mapping.getOutputSheet());
+        ExcelProcessor.addHeaderRow(sheet);
+        int rowNum = 1;
+        for (int copy = 0; copy < copies; copy++) {
+            for (TransformedRow row : rows) {
+                for (OutputRow outputRow : row.outputRows()) {
+                    outputRow.writeTo(sheet.createRow(rowNum++));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public File write() throws IOException {
+        try (OutputStream out = new FileOutputStream(output)) {
+            workbook.write(out);
+        }
+        return output;
+    }
+
+    @TearDown(Level.Invocation)
+    public void disposeWorkbook() throws IOException {
+        ExcelProcessor.WorkbookFactory.dispose(workbook);
+        workbook.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s, %d copies: %,d bytes%n", writer, copies, output.length());
+        output.delete();
+        workDir.delete();
+    }
+}
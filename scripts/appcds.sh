@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Builds the application jar with the reference snapshot and records an AppCDS archive of the classes loaded
+# while converting the sample DVL files (or the files/directories given as arguments).
+# Start the application with: java -XX:SharedArchiveFile=target/DVLtoAPL.jsa -jar target/DVLtoAPL-1.0-SNAPSHOT-jar-with-dependencies.jar ...
+set -euo pipefail
+
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+cd "$PROJECT_DIR"
+mvn -B -q -Preference-snapshot package
+
+JAR="$PROJECT_DIR/target/DVLtoAPL-1.0-SNAPSHOT-jar-with-dependencies.jar"
+ARCHIVE="$PROJECT_DIR/target/DVLtoAPL.jsa"
+if [ "$#" -eq 0 ]; then
+  set -- "$PROJECT_DIR/data"
+fi
+
+# Train in an empty directory so that the conversion cache does not short-cut the conversions.
+WORK_DIR="$(mktemp -d)"
+trap 'rm -rf "$WORK_DIR"' EXIT
+(cd "$WORK_DIR" && java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" "$@")
+echo "Wrote $ARCHIVE"
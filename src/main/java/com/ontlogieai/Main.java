@@ -1,18 +1,53 @@
 package com.ontlogieai;
 
+import com.ontlogieai.analysis.MappingAnalyzer;
+import com.ontlogieai.batch.BatchConverter;
+import com.ontlogieai.cache.ConversionCache;
+import com.ontlogieai.config.ConfigurationReader;
 import com.ontlogieai.file.FileUtil;
+import com.ontlogieai.reference.ReferenceDataCache;
+import com.ontlogieai.server.ConversionServer;
+import com.ontlogieai.transformation.MergeConverter;
 import com.ontlogieai.ui.UIUtil;
+import com.ontlogieai.watch.WatchFolderDaemon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 
 public class Main {
     public static final String UPLOAD_DIR = "uploads/";
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
     public static void main(String[] args) {
+        args = useConfigFile(args);
+        if (args.length > 0 && args[0].equals("--serve")) {
+            System.exit(ConversionServer.run(args));
+        }
+        if (args.length > 0 && args[0].equals("--watch")) {
+            System.exit(WatchFolderDaemon.run(args));
+        }
+        if (args.length > 0 && args[0].equals("--analyze")) {
+            System.exit(MappingAnalyzer.run(args));
+        }
+        if (args.length > 0 && args[0].equals("--merge")) {
+            System.exit(MergeConverter.run(args));
+        }
+        if (args.length > 0 && (args[0].equals("--cache-stats") || args[0].equals("--cache-clear"))) {
+            System.exit(ConversionCache.run(args, ConfigurationReader.getConfiguration()));
+        }
+        if (args.length > 0) {
+            System.exit(BatchConverter.run(args));
+        }
+
         logger.info("Application starting...");
         FileUtil.ensureDirectoryExists(UPLOAD_DIR);
+        ReferenceDataCache.preload();
         UIUtil uiUtil = new UIUtil();
         uiUtil.setLookAndFeel();
         uiUtil.createAndShowGUI();
@@ -20,4 +55,28 @@ public class Main {
         System.out.println("Application is started");
     }
 
+    /**
+     * Handles {@code --config <path>}, which may precede any mode, and returns the remaining arguments.
+     */
+    private static String[] useConfigFile(String[] args) {
+        List<String> remaining = new ArrayList<>(Arrays.asList(args));
+        int index = remaining.indexOf("--config");
+        if (index < 0) {
+            return args;
+        }
+        if (index + 1 >= remaining.size()) {
+            System.err.println("Usage: --config <path to config.json>");
+            System.exit(2);
+        }
+        Path configFile = Paths.get(remaining.remove(index + 1));
+        remaining.remove(index);
+        try {
+            ConfigurationReader.useFile(configFile);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+        return remaining.toArray(new String[0]);
+    }
+
 }
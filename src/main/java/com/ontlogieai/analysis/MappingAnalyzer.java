@@ -0,0 +1,168 @@
+package com.ontlogieai.analysis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ontlogieai.batch.BatchConverter;
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.input.DvlRowHandler;
+import com.ontlogieai.input.DvlSheetReader;
+import com.ontlogieai.reference.ReferenceDataCache;
+import com.ontlogieai.reference.ReferenceIndex;
+import com.ontlogieai.reference.ReferenceSheet;
+import com.ontlogieai.transformation.DeviceTagMapper;
+import com.ontlogieai.transformation.DeviceTagUtility;
+import com.ontlogieai.transformation.TagResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Dry run of the conversion: streams the input sheet of the first configured sheet mapping of every input, resolves
+ * each row to its standard device tag and looks the tag up in the mapping's reference sheet, but builds no output
+ * workbook. The resulting
+ * {@link MappingReport} shows which rows a conversion would drop, what it would emit per tag, and which
+ * reference tags no input uses.
+ */
+public class MappingAnalyzer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappingAnalyzer.class);
+
+    private static final String DEVICE_TAG_HEADER = "Device Tag";
+    private static final String USAGE = "Usage: --analyze [--threads N] [--json report.json] <dir|glob|file>...";
+
+    private final Configuration configuration;
+    private final ReferenceIndex referenceIndex;
+    private final DeviceTagMapper deviceTagMapper = new DeviceTagMapper();
+
+    public MappingAnalyzer(Configuration configuration, ReferenceIndex referenceIndex) {
+        this.configuration = configuration;
+        this.referenceIndex = referenceIndex;
+    }
+
+    /**
+     * Entry point for {@code Main --analyze [--threads N] [--json report.json] <dir|glob|file>...}.
+     */
+    public static int run(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        File jsonFile = null;
+        List<String> inputs = new ArrayList<>();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--json" -> jsonFile = new File(args[++i]);
+                    default -> inputs.add(args[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // A non-numeric or missing option value.
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            List<File> files = BatchConverter.resolveInputs(inputs);
+            if (files.isEmpty()) {
+                System.err.println(USAGE);
+                return 2;
+            }
+            Configuration configuration = ConfigurationReader.getConfiguration();
+            String referenceSheetName = configuration.getSheetMappings().get(0).getReferenceSheet();
+            ReferenceSheet referenceSheet = ReferenceDataCache.get().getSheet(referenceSheetName);
+            if (referenceSheet == null) {
+                System.err.println("Reference workbook has no sheet '" + referenceSheetName + "'");
+                return 2;
+            }
+            ReferenceIndex referenceIndex = referenceSheet.getIndex(referenceSheet.getColumnIndex(DEVICE_TAG_HEADER));
+            MappingReport report = new MappingAnalyzer(configuration, referenceIndex)
+                    .analyzeAll(files, threads);
+
+            report.print(System.out);
+            if (jsonFile != null) {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(jsonFile, report.toJson());
+                System.out.println("Report written to " + jsonFile.getPath());
+            }
+            return 0;
+        } catch (IOException e) {
+            LOGGER.error("Analysis failed", e);
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 2;
+        }
+    }
+
+    public MappingReport analyzeAll(List<File> files, int threads) throws InterruptedException {
+        // The reference sheet's own header row is indexed like any other row.
+        MappingReport report = new MappingReport(referenceIndex.getDeviceTags().stream()
+                .filter(tag -> !DEVICE_TAG_HEADER.equalsIgnoreCase(tag))
+                .toList());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (File file : files) {
+                futures.add(executor.submit(() -> analyze(file, report)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Analysis failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return report;
+    }
+
+    private void analyze(File file, MappingReport report) {
+        MappingReport.FileAnalysis analysis = report.startFile(file.getName());
+        try {
+            DvlSheetReader reader = DvlSheetReader.forFile(file, configuration.isStreamingInput(), configuration.getRequiredHeaders());
+            DvlSheetReader.Result result = reader.read(file, configuration.getSheetMappings().get(0).getInputSheet(), new DvlRowHandler() {
+                @Override
+                public void startSheet() {
+                }
+
+                @Override
+                public void headerRow(int deviceTagColumnIndex, int pointDescriptorColumnIndex) {
+                }
+
+                @Override
+                public void row(DvlRow row) {
+                    analyzeRow(row, analysis);
+                }
+            });
+            analysis.finish(result.name());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not analyze {}", file.getName(), e);
+            analysis.failed(e.toString());
+        }
+        report.add(analysis);
+    }
+
+    private void analyzeRow(DvlRow row, MappingReport.FileAnalysis analysis) {
+        String deviceTag = row.deviceTag();
+        // Header rows are passed on as rows too; the conversion skips them the same way.
+        if (DEVICE_TAG_HEADER.equalsIgnoreCase(deviceTag)) {
+            return;
+        }
+        TagResolution resolution = deviceTagMapper.resolve(configuration, deviceTag, row.pointDescription());
+        String standardDeviceTag = resolution.standardDeviceTag();
+        String deviceType = DeviceTagUtility.getDeviceType(deviceTag);
+        if (standardDeviceTag == null || standardDeviceTag.isEmpty()) {
+            analysis.unmapped(deviceType, resolution.descriptorKey(), row);
+        } else {
+            analysis.mapped(deviceType, resolution.descriptorKey(), standardDeviceTag, referenceIndex.getRows(standardDeviceTag).size());
+        }
+    }
+}
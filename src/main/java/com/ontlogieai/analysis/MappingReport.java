@@ -0,0 +1,225 @@
+package com.ontlogieai.analysis;
+
+import com.ontlogieai.input.DvlRow;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of a {@link MappingAnalyzer} run over one or more DVL files. Each file is analyzed into its own
+ * {@link FileAnalysis} and merged here when done.
+ */
+public class MappingReport {
+
+    private static final int EXAMPLES_PER_GROUP = 3;
+
+    private final List<String> referenceDeviceTags;
+    private final List<FileAnalysis> files = new ArrayList<>();
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+    // Standard tags used by at least one input row, lower-cased like the reference index.
+    private final Map<String, Integer> dvlRowsByStandardTag = new HashMap<>();
+
+    private record GroupKey(String deviceType, String descriptorKey) {
+    }
+
+    /**
+     * Rows sharing a device type and descriptor key; they all resolve to the same standard tag, or all to none.
+     */
+    public static final class Group {
+        private final String deviceType;
+        private final String descriptorKey;
+        private final String standardDeviceTag;
+        private final int referenceRows;
+        private int rows;
+        private final List<String> examples = new ArrayList<>();
+
+        Group(String deviceType, String descriptorKey, String standardDeviceTag, int referenceRows) {
+            this.deviceType = deviceType;
+            this.descriptorKey = descriptorKey;
+            this.standardDeviceTag = standardDeviceTag;
+            this.referenceRows = referenceRows;
+        }
+
+        void add(int count, List<String> rowExamples) {
+            rows += count;
+            for (String example : rowExamples) {
+                if (examples.size() < EXAMPLES_PER_GROUP) {
+                    examples.add(example);
+                }
+            }
+        }
+
+        boolean isMapped() {
+            return !standardDeviceTag.isEmpty();
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("deviceType", deviceType);
+            json.put("descriptorKey", descriptorKey);
+            json.put("rows", rows);
+            if (isMapped()) {
+                json.put("standardDeviceTag", standardDeviceTag);
+                json.put("referenceRowsPerRow", referenceRows);
+                json.put("outputRows", rows * referenceRows);
+            } else {
+                json.put("examples", examples);
+            }
+            return json;
+        }
+    }
+
+    /** Counters of one input file, filled by a single thread. */
+    public static final class FileAnalysis {
+        private final String fileName;
+        private String status = "";
+        private String error;
+        private int rows;
+        private int mappedRows;
+        private int unmappedRows;
+        private int missingReferenceRows;
+        private long outputRows;
+        private final Map<GroupKey, Group> groups = new HashMap<>();
+        private final Map<String, Integer> dvlRowsByStandardTag = new HashMap<>();
+
+        FileAnalysis(String fileName) {
+            this.fileName = fileName;
+        }
+
+        void mapped(String deviceType, String descriptorKey, String standardDeviceTag, int referenceRows) {
+            rows++;
+            mappedRows++;
+            if (referenceRows == 0) {
+                missingReferenceRows++;
+            }
+            outputRows += referenceRows;
+            groups.computeIfAbsent(new GroupKey(deviceType, descriptorKey),
+                    key -> new Group(deviceType, descriptorKey, standardDeviceTag, referenceRows)).add(1, List.of());
+            dvlRowsByStandardTag.merge(standardDeviceTag.toLowerCase(Locale.ROOT), 1, Integer::sum);
+        }
+
+        void unmapped(String deviceType, String descriptorKey, DvlRow row) {
+            rows++;
+            unmappedRows++;
+            groups.computeIfAbsent(new GroupKey(deviceType, descriptorKey),
+                    key -> new Group(deviceType, descriptorKey, "", 0))
+                    .add(1, List.of(row.deviceTag() + " | " + row.pointDescription() + " (" + fileName + ")"));
+        }
+
+        void finish(String status) {
+            this.status = status;
+        }
+
+        void failed(String error) {
+            this.status = "FAILED";
+            this.error = error;
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("file", fileName);
+            json.put("status", status);
+            if (error != null) {
+                json.put("error", error);
+            }
+            json.put("rows", rows);
+            json.put("mappedRows", mappedRows);
+            json.put("unmappedRows", unmappedRows);
+            json.put("rowsWithoutReferenceRows", missingReferenceRows);
+            json.put("outputRows", outputRows);
+            return json;
+        }
+    }
+
+    MappingReport(List<String> referenceDeviceTags) {
+        this.referenceDeviceTags = List.copyOf(referenceDeviceTags);
+    }
+
+    FileAnalysis startFile(String fileName) {
+        return new FileAnalysis(fileName);
+    }
+
+    synchronized void add(FileAnalysis analysis) {
+        files.add(analysis);
+        analysis.groups.forEach((key, group) -> groups.computeIfAbsent(key,
+                k -> new Group(group.deviceType, group.descriptorKey, group.standardDeviceTag, group.referenceRows))
+                .add(group.rows, group.examples));
+        analysis.dvlRowsByStandardTag.forEach((tag, count) -> dvlRowsByStandardTag.merge(tag, count, Integer::sum));
+    }
+
+    public synchronized List<String> getUnusedReferenceTags() {
+        return referenceDeviceTags.stream()
+                .filter(tag -> !dvlRowsByStandardTag.containsKey(tag.toLowerCase(Locale.ROOT)))
+                .sorted()
+                .toList();
+    }
+
+    private List<Group> sortedGroups(boolean mapped) {
+        return groups.values().stream()
+                .filter(group -> group.isMapped() == mapped)
+                .sorted(Comparator.comparingInt((Group group) -> group.rows).reversed()
+                        .thenComparing(group -> group.deviceType)
+                        .thenComparing(group -> group.descriptorKey))
+                .toList();
+    }
+
+    private List<FileAnalysis> sortedFiles() {
+        return files.stream().sorted(Comparator.comparing(file -> file.fileName)).toList();
+    }
+
+    public synchronized void print(PrintStream out) {
+        out.printf("%-17s %6s %6s %8s %8s %8s  %s%n", "STATUS", "ROWS", "MAPPED", "UNMAPPED", "NO REF", "OUTPUT", "FILE");
+        int rows = 0;
+        int unmapped = 0;
+        for (FileAnalysis file : sortedFiles()) {
+            out.printf("%-17s %6d %6d %8d %8d %8d  %s%s%n", file.status, file.rows, file.mappedRows, file.unmappedRows,
+                    file.missingReferenceRows, file.outputRows, file.fileName, file.error != null ? " (" + file.error + ")" : "");
+            rows += file.rows;
+            unmapped += file.unmappedRows;
+        }
+        out.printf("%d files, %d rows, %d unmapped%n", files.size(), rows, unmapped);
+
+        out.println();
+        out.println("Unmapped rows by device type and descriptor key:");
+        for (Group group : sortedGroups(false)) {
+            out.printf("  %6d  %-5s %-40s e.g. %s%n", group.rows, label(group.deviceType), label(group.descriptorKey),
+                    group.examples.isEmpty() ? "" : group.examples.get(0));
+        }
+
+        out.println();
+        out.println("Mapped rows by device type and descriptor key:");
+        for (Group group : sortedGroups(true)) {
+            out.printf("  %6d  %-5s %-40s -> %-20s %s%n", group.rows, group.deviceType, label(group.descriptorKey),
+                    group.standardDeviceTag, group.referenceRows == 0
+                            ? "not in reference sheet, emits nothing"
+                            : group.referenceRows + " reference rows each, " + group.rows * group.referenceRows + " output rows");
+        }
+
+        List<String> unused = getUnusedReferenceTags();
+        out.println();
+        out.printf("Reference tags no input row used (%d of %d):%n", unused.size(), referenceDeviceTags.size());
+        for (String tag : unused) {
+            out.println("  " + tag);
+        }
+    }
+
+    public synchronized Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("files", sortedFiles().stream().map(FileAnalysis::toJson).toList());
+        json.put("unmapped", sortedGroups(false).stream().map(Group::toJson).toList());
+        json.put("mapped", sortedGroups(true).stream().map(Group::toJson).toList());
+        json.put("unusedReferenceTags", getUnusedReferenceTags());
+        return json;
+    }
+
+    private static String label(String value) {
+        return value.isEmpty() ? "(none)" : value;
+    }
+}
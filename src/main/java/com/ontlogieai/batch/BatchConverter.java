@@ -0,0 +1,193 @@
+package com.ontlogieai.batch;
+
+import com.ontlogieai.Main;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.file.FileProcessor;
+import com.ontlogieai.file.FileUtil;
+import com.ontlogieai.metrics.ConversionStatistics;
+import com.ontlogieai.reference.ReferenceDataCache;
+import com.ontlogieai.transformation.ConversionProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Headless conversion of many DVL files. Inputs are files, directories (their .xls/.xlsx files) or glob patterns
+ * such as {@code data/*.xlsx}; every match is converted on a fixed pool and written to {@link Main#UPLOAD_DIR}.
+ */
+public class BatchConverter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchConverter.class);
+
+    private final int threads;
+    private final FileProcessor fileProcessor;
+
+    public BatchConverter(int threads) {
+        this.threads = threads;
+        this.fileProcessor = new FileProcessor();
+    }
+
+    private static final String USAGE = "Usage: [--threads N] <dir|glob|file>...";
+
+    /**
+     * Entry point for {@code Main} when started with arguments: {@code [--threads N] <dir|glob|file>...}.
+     *
+     * @return the process exit code, non-zero when an input could not be converted
+     */
+    public static int run(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                } else {
+                    inputs.add(args[i]);
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        List<File> files;
+        try {
+            files = resolveInputs(inputs);
+        } catch (IOException e) {
+            LOGGER.error("Could not list input files", e);
+            return 2;
+        }
+        if (files.isEmpty()) {
+            System.err.println("No .xls/.xlsx files found for " + inputs);
+            return 2;
+        }
+
+        List<Result> results = new BatchConverter(threads).convertAll(files);
+        printSummary(results, System.out);
+        return results.stream().allMatch(Result::success) ? 0 : 1;
+    }
+
+    public List<Result> convertAll(List<File> files) {
+        FileUtil.ensureDirectoryExists(Main.UPLOAD_DIR);
+        ReferenceDataCache.preload();
+        ConversionStatistics.get().startPeriodicDump(ConfigurationReader.getConfiguration().getMetricsDumpIntervalSeconds());
+
+        int poolSize = Math.min(threads, files.size());
+        LOGGER.info("Converting {} files on {} threads", files.size(), poolSize);
+        // Inputs of the same name from different directories must not write the same output.
+        Map<File, File> outputFiles = FileProcessor.getOutputFiles(files);
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<Result>> futures = new ArrayList<>(files.size());
+            for (File file : files) {
+                File outputFile = outputFiles.get(file);
+                futures.add(executor.submit(() -> convert(file, outputFile)));
+            }
+            List<Result> results = new ArrayList<>(files.size());
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(await(futures.get(i), files.get(i)));
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Result convert(File file, File outputFile) {
+        long start = System.nanoTime();
+        try {
+            File written = fileProcessor.convert(file, outputFile, ConversionProgress.NONE);
+            return new Result(file, written, true, elapsedMillis(start), null);
+        } catch (Exception e) {
+            LOGGER.error("Failed to process file: {}", file.getName(), e);
+            return new Result(file, null, false, elapsedMillis(start), e.toString());
+        }
+    }
+
+    private static Result await(Future<Result> future, File file) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(file, null, false, 0, "interrupted");
+        } catch (ExecutionException e) {
+            return new Result(file, null, false, 0, e.getCause().toString());
+        }
+    }
+
+    /**
+     * Expands files, directories and glob patterns into the Excel files they denote, in a stable order.
+     */
+    public static List<File> resolveInputs(List<String> inputs) throws IOException {
+        Set<File> files = new LinkedHashSet<>();
+        for (String input : inputs) {
+            Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    children.map(Path::toFile).filter(File::isFile).filter(FileUtil::isExcelFile).sorted().forEach(files::add);
+                }
+            } else if (isGlob(input)) {
+                files.addAll(expandGlob(input));
+            } else if (FileUtil.isExcelFile(path.toFile())) {
+                files.add(path.toFile());
+            } else {
+                LOGGER.warn("Skipping input that is neither a directory, a glob nor an Excel file: {}", input);
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static boolean isGlob(String input) {
+        return input.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+    }
+
+    private static List<File> expandGlob(String glob) throws IOException {
+        String normalized = glob.replace('\\', '/');
+        int firstWildcard = 0;
+        while (firstWildcard < normalized.length() && "*?[{".indexOf(normalized.charAt(firstWildcard)) < 0) {
+            firstWildcard++;
+        }
+        int lastSeparator = normalized.lastIndexOf('/', firstWildcard);
+        Path baseDir = Paths.get(lastSeparator < 0 ? "." : normalized.substring(0, lastSeparator + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized.substring(lastSeparator + 1));
+
+        if (!Files.isDirectory(baseDir)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(baseDir)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(baseDir.relativize(p)))
+                    .map(Path::toFile)
+                    .filter(FileUtil::isExcelFile)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static void printSummary(List<Result> results, PrintStream out) {
+        long totalMillis = 0;
+        int failed = 0;
+        out.printf("%-8s %10s  %s%n", "STATUS", "TIME (ms)", "FILE");
+        for (Result result : results) {
+            out.printf("%-8s %10d  %s%s%n", result.success() ? "OK" : "FAILED", result.millis(), result.input().getPath(),
+                    result.success() ? " -> " + result.output().getPath() : " (" + result.error() + ")");
+            totalMillis += result.millis();
+            if (!result.success()) failed++;
+        }
+        out.printf("%d converted, %d failed, %d ms total conversion time%n", results.size() - failed, failed, totalMillis);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public record Result(File input, File output, boolean success, long millis, String error) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.ontlogieai.cache;
+
+import com.ontlogieai.config.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of generated APL workbooks keyed by a SHA-256 digest of the input bytes and the
+ * {@link ConversionFingerprint}. Entries are copied out on a hit; a hit also refreshes the entry's modification
+ * time, which serves as the LRU order when the directory grows beyond its size cap. Hit, miss and eviction counters
+ * are kept in memory and added to {@code stats.properties} every {@value #FLUSH_EVERY} updates and at shutdown.
+ */
+public class ConversionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionCache.class);
+
+    private static final String ENTRY_SUFFIX = ".xlsx";
+    private static final String STATS_FILE = "stats.properties";
+    private static final int FLUSH_EVERY = 32;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Long> pendingCounters = new HashMap<>();
+    private int pendingUpdates;
+    private boolean shutdownFlushRegistered;
+
+    public record Stats(int entries, long bytes, long maxBytes, long hits, long misses, long evictions) {
+    }
+
+    public ConversionCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public static ConversionCache fromConfiguration(Configuration configuration) {
+        return new ConversionCache(Paths.get(configuration.getResultCacheDirectory()),
+                configuration.getResultCacheMaxMegabytes() * 1024L * 1024L);
+    }
+
+    public String key(File input, Configuration configuration, String referenceChecksum) throws IOException {
+        MessageDigest digest = ConversionFingerprint.sha256();
+        try (InputStream in = new DigestInputStream(new BufferedInputStream(new FileInputStream(input)), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        digest.update((byte) 0);
+        digest.update(ConversionFingerprint.of(configuration, referenceChecksum).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Copies the cached output for {@code key} to {@code output}. The entry is copied to a temporary file next to
+     * {@code output} and moved into place, so an entry evicted during the copy, by this or another process sharing
+     * the directory, is a miss rather than a truncated output.
+     *
+     * @return false on a miss, leaving {@code output} untouched
+     */
+    public boolean restore(String key, File output) throws IOException {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        if (!Files.isRegularFile(entry)) {
+            count("misses");
+            return false;
+        }
+        Path target = output.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), output.getName(), ".tmp");
+        try {
+            Files.copy(entry, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Cached conversion {} was evicted while being restored", entry.getFileName());
+            count("misses");
+            return false;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Evicted right after the copy; the restored output is complete.
+        }
+        count("hits");
+        return true;
+    }
+
+    public void store(String key, File output) throws IOException {
+        Files.createDirectories(directory);
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            Files.copy(output.toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        evict();
+    }
+
+    public Stats stats() throws IOException {
+        List<Path> entries = entries();
+        long bytes = 0;
+        for (Path entry : entries) {
+            bytes += size(entry);
+        }
+        Properties counters;
+        synchronized (this) {
+            counters = readCounters();
+            pendingCounters.forEach((name, pending) ->
+                    counters.setProperty(name, Long.toString(counter(counters, name) + pending)));
+        }
+        return new Stats(entries.size(), bytes, maxBytes, counter(counters, "hits"), counter(counters, "misses"),
+                counter(counters, "evictions"));
+    }
+
+    public void clear() throws IOException {
+        for (Path entry : entries()) {
+            Files.deleteIfExists(entry);
+        }
+        synchronized (this) {
+            pendingCounters.clear();
+            pendingUpdates = 0;
+            Files.deleteIfExists(directory.resolve(STATS_FILE));
+        }
+    }
+
+    /** Adds the counters accumulated in memory to the statistics file. */
+    public synchronized void flush() {
+        if (pendingUpdates == 0) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Properties counters = readCounters();
+            pendingCounters.forEach((name, pending) ->
+                    counters.setProperty(name, Long.toString(counter(counters, name) + pending)));
+            try (OutputStream out = Files.newOutputStream(directory.resolve(STATS_FILE))) {
+                counters.store(out, "Conversion cache counters");
+            }
+            pendingCounters.clear();
+            pendingUpdates = 0;
+        } catch (IOException e) {
+            LOGGER.warn("Could not update conversion cache statistics", e);
+        }
+    }
+
+    /** Deletes least recently used entries until the cache fits its size cap. */
+    private synchronized void evict() throws IOException {
+        List<Path> entries = new ArrayList<>(entries());
+        entries.sort(Comparator.comparing(ConversionCache::lastModified));
+        long bytes = 0;
+        for (Path entry : entries) {
+            bytes += size(entry);
+        }
+        for (int i = 0; bytes > maxBytes && i < entries.size(); i++) {
+            bytes -= size(entries.get(i));
+            // Another process sharing the directory may have removed the entry already.
+            if (Files.deleteIfExists(entries.get(i))) {
+                count("evictions");
+                LOGGER.debug("Evicted cached conversion {}", entries.get(i).getFileName());
+            }
+        }
+    }
+
+    private List<Path> entries() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX)).toList();
+        }
+    }
+
+    private synchronized void count(String counter) {
+        pendingCounters.merge(counter, 1L, Long::sum);
+        if (!shutdownFlushRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "conversion-cache-stats"));
+            shutdownFlushRegistered = true;
+        }
+        if (++pendingUpdates >= FLUSH_EVERY) {
+            flush();
+        }
+    }
+
+    private Properties readCounters() throws IOException {
+        Properties counters = new Properties();
+        Path file = directory.resolve(STATS_FILE);
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                counters.load(in);
+            }
+        }
+        return counters;
+    }
+
+    private static long counter(Properties counters, String name) {
+        return Long.parseLong(counters.getProperty(name, "0"));
+    }
+
+    /** The size of {@code path}, or 0 once it has been deleted. */
+    private static long size(Path path) throws IOException {
+        try {
+            return Files.size(path);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Entry point for {@code Main --cache-stats} and {@code Main --cache-clear}.
+     */
+    public static int run(String[] args, Configuration configuration) {
+        ConversionCache cache = fromConfiguration(configuration);
+        try {
+            if ("--cache-clear".equals(args[0])) {
+                cache.clear();
+                System.out.println("Cleared conversion cache " + cache.directory.toAbsolutePath());
+                return 0;
+            }
+            Stats stats = cache.stats();
+            long lookups = stats.hits() + stats.misses();
+            System.out.println("Conversion cache " + cache.directory.toAbsolutePath());
+            System.out.printf("  entries    %d%n", stats.entries());
+            System.out.printf("  size       %.1f MB of %.1f MB%n", stats.bytes() / 1048576.0, stats.maxBytes() / 1048576.0);
+            System.out.printf("  hits       %d%n", stats.hits());
+            System.out.printf("  misses     %d%n", stats.misses());
+            System.out.printf("  hit rate   %.1f%%%n", lookups == 0 ? 0.0 : stats.hits() * 100.0 / lookups);
+            System.out.printf("  evictions  %d%n", stats.evictions());
+            return 0;
+        } catch (IOException e) {
+            LOGGER.error("Could not read conversion cache {}", cache.directory, e);
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ontlogieai.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.transformation.ExcelProcessor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Digest of everything besides the input that determines a conversion's output: the effective configuration,
+ * the reference workbook checksum and the converter version. Outputs produced under the same fingerprint from
+ * the same input are identical.
+ */
+public final class ConversionFingerprint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionFingerprint.class);
+    private static final String UNKNOWN_VERSION = "unknown-";
+    private static final String TOOL_VERSION = toolVersion();
+
+    private static final ObjectMapper CANONICAL_JSON = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private ConversionFingerprint() {
+    }
+
+    public static String of(Configuration configuration, String referenceChecksum) {
+        MessageDigest digest = sha256();
+        try {
+            digest.update(CANONICAL_JSON.writeValueAsBytes(configuration));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Configuration cannot be serialized", e);
+        }
+        digest.update((byte) 0);
+        digest.update(referenceChecksum.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(TOOL_VERSION.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * False when the converter code could not be identified. Fingerprints are then unique to this process, so
+     * nothing produced by another build is reused, and the result cache is skipped altogether.
+     */
+    public static boolean isToolVersionKnown() {
+        return !TOOL_VERSION.startsWith(UNKNOWN_VERSION);
+    }
+
+    /**
+     * The release version, or for development and snapshot builds a digest of the converter code (the class files
+     * of a classes directory, or the jar), so that a rebuild changing any class never reuses older outputs.
+     */
+    private static String toolVersion() {
+        String version = ExcelProcessor.class.getPackage().getImplementationVersion();
+        if (version != null && !version.endsWith("-SNAPSHOT")) {
+            return version;
+        }
+        try {
+            CodeSource codeSource = ExcelProcessor.class.getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null) {
+                return "dev-" + codeDigest(Paths.get(codeSource.getLocation().toURI()));
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            LOGGER.warn("Could not identify the converter code, conversion results will not be reused: {}", e.toString());
+        }
+        return UNKNOWN_VERSION + UUID.randomUUID();
+    }
+
+    private static String codeDigest(Path location) throws IOException {
+        MessageDigest digest = sha256();
+        if (Files.isDirectory(location)) {
+            List<Path> classFiles;
+            try (Stream<Path> files = Files.walk(location)) {
+                classFiles = files.filter(file -> file.toString().endsWith(".class")).sorted().toList();
+            }
+            for (Path classFile : classFiles) {
+                digest.update(location.relativize(classFile).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(classFile));
+            }
+        } else {
+            try (InputStream in = new DigestInputStream(new BufferedInputStream(Files.newInputStream(location)), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,14 +1,22 @@
 package com.ontlogieai.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Bound from config.json. Setters are private so that Jackson can populate the bean but nobody can change
+ * it afterwards; {@link ConfigurationReader} freezes the collections before publishing an instance.
+ */
 @Getter
-@Setter
+@Setter(AccessLevel.PRIVATE)
 public class Configuration {
 
     private int deviceTagIndex;
@@ -16,6 +24,37 @@ public class Configuration {
     private int pointDescriptionIndexInOutputFile;
     private int deviceTagIndexInOutputFile;
 
+    private boolean streamingInput = true;
+    private OutputMode outputMode = OutputMode.STREAMING;
+    private int streamingRowWindow = 100;
+    private boolean compressTempFiles;
+    // Deflate level of the xlsx parts, -1 for the zip default, 0 to store them uncompressed.
+    private int xlsxCompressionLevel = -1;
+    private int xlsxCompressionWorkers;
+    private int transformWorkers;
+    private int transformWindow = 256;
+    private boolean resultCache;
+    private String resultCacheDirectory = "uploads/.cache";
+    private int resultCacheMaxMegabytes = 512;
+    private boolean incrementalOutput;
+    private boolean metricsSummary;
+    private int metricsDumpIntervalSeconds;
+    private MergeLayout mergeLayout = MergeLayout.PER_FLOOR;
+    private MergeDuplicates mergeDuplicates = MergeDuplicates.FIRST;
+    private List<OutputFormat> outputFormats = List.of(OutputFormat.XLSX);
+    private boolean gzipTextOutput;
+    // Converted in parallel when there are several; their generated sheets appear in list order. Each mapping
+    // re-reads its sheet when streamingInput is on; otherwise the input workbook is loaded once for all of them.
+    // An outputSheet must not be named like a reference sheet that is copied into the output.
+    private List<SheetMapping> sheetMappings = List.of(new SheetMapping("Floormanager", "J270-06", "J270-06-demo"));
+
+    // Device types recognised in DVL device tags; the longest type contained in a tag wins.
+    @JsonProperty("deviceTypes")
+    private List<String> deviceTypes = List.of(
+            "TT", "FT", "MT", "PT", "ACU", "XC", "XCV", "TC", "QIT", "UPS",
+            "VAV", "XT", "XA", "FCV", "KS", "XI", "PMP"
+    );
+
     @JsonProperty("deviceTagMapping")
     private Map<String, String> deviceTagMapping;
 
@@ -24,4 +63,41 @@ public class Configuration {
 
     @JsonProperty("requiredHeaders")
     private List<String> requiredHeaders;
+
+    Configuration freeze() {
+        deviceTypes = deviceTypes == null ? List.of() : List.copyOf(deviceTypes);
+        deviceTagMapping = deviceTagMapping == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(deviceTagMapping));
+        Map<String, List<String>> keyMapping = new LinkedHashMap<>();
+        if (deviceKeyMapping != null) {
+            deviceKeyMapping.forEach((deviceType, keys) -> keyMapping.put(deviceType, List.copyOf(keys)));
+        }
+        deviceKeyMapping = Collections.unmodifiableMap(keyMapping);
+        requiredHeaders = requiredHeaders == null ? List.of() : List.copyOf(requiredHeaders);
+        outputFormats = outputFormats == null ? List.of() : List.copyOf(outputFormats);
+        sheetMappings = sheetMappings == null ? List.of() : List.copyOf(sheetMappings);
+        return this;
+    }
+
+    /** True when only the xlsx workbook is written, the only output the conversion cache and the server handle. */
+    @JsonIgnore
+    public boolean isXlsxOnly() {
+        return outputFormats.equals(List.of(OutputFormat.XLSX));
+    }
+
+    /**
+     * Number of threads compressing the parts of a streamed xlsx output; 0 in config.json means one per available
+     * processor.
+     */
+    @JsonIgnore
+    public int getEffectiveXlsxCompressionWorkers() {
+        return xlsxCompressionWorkers > 0 ? xlsxCompressionWorkers : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Number of threads transforming rows of one conversion; 0 in config.json means one per available processor.
+     */
+    @JsonIgnore
+    public int getEffectiveTransformWorkers() {
+        return transformWorkers > 0 ? transformWorkers : Runtime.getRuntime().availableProcessors();
+    }
 }
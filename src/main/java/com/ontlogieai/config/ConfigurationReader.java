@@ -1,33 +1,105 @@
 package com.ontlogieai.config;
 
+import com.fasterxml.jackson.core.StreamReadFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
+/**
+ * Loads, validates and publishes the current {@link Configuration}. By default config.json comes from the
+ * classpath; {@link #useFile(Path)} switches to an external file, which {@link ConfigurationWatcher} can then
+ * reload while the application runs. A configuration is only published after it passed
+ * {@link ConfigurationValidator}, and conversions read it once at their start, so a reload never changes the
+ * configuration under a running conversion.
+ */
 public class ConfigurationReader {
 
     private static final String CONFIG_FILE = "config.json"; // Change as per your file location
 
-    private static Configuration configuration;
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .enable(StreamReadFeature.STRICT_DUPLICATE_DETECTION)
+            .build();
+
+    private static final Object LOCK = new Object();
+    private static volatile Configuration configuration;
+    // Null while config.json is read from the classpath.
+    private static volatile Path configFile;
 
     public static Configuration loadConfig() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        try (InputStream inputStream = ConfigurationReader.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+        Path file = configFile;
+        String source = file != null ? file.toString() : "classpath:" + CONFIG_FILE;
+        Configuration loaded;
+        try (InputStream inputStream = file != null
+                ? Files.newInputStream(file)
+                : ConfigurationReader.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
             if (inputStream == null) {
                 throw new RuntimeException("Configuration file not found: " + CONFIG_FILE);
             }
-            return objectMapper.readValue(inputStream, Configuration.class);
+            loaded = OBJECT_MAPPER.readValue(inputStream, Configuration.class).freeze();
         } catch (IOException e) {
-            throw new RuntimeException("Error loading configuration", e);
+            throw new RuntimeException("Error loading configuration " + source + ": " + e.getMessage(), e);
+        }
+
+        List<String> problems = ConfigurationValidator.validate(loaded);
+        if (!problems.isEmpty()) {
+            throw new InvalidConfigurationException(source, problems);
         }
+        return loaded;
     }
 
     public static Configuration getConfiguration(){
-        if(null == configuration){
+        Configuration current = configuration;
+        if (current == null) {
+            synchronized (LOCK) {
+                current = configuration;
+                if (current == null) {
+                    current = loadConfig();
+                    configuration = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reads the configuration from {@code file} from now on and loads it right away. The previous source stays
+     * in use if the file cannot be loaded.
+     */
+    public static Configuration useFile(Path file) {
+        synchronized (LOCK) {
+            Path previous = configFile;
+            configFile = file.toAbsolutePath();
+            try {
+                configuration = loadConfig();
+                return configuration;
+            } catch (RuntimeException e) {
+                configFile = previous;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return the external configuration file, or null when config.json is read from the classpath
+     */
+    public static Path getConfigFile() {
+        return configFile;
+    }
+
+    /**
+     * Reads the configuration again and makes it the current configuration. Components that cache data derived
+     * from the configuration notice the new instance on their next use and rebuild. If the configuration cannot
+     * be loaded or is invalid, the exception is thrown and the current configuration stays in place.
+     */
+    public static Configuration reload() {
+        synchronized (LOCK) {
             configuration = loadConfig();
             return configuration;
         }
-        return configuration;
     }
 }
@@ -0,0 +1,147 @@
+package com.ontlogieai.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Load-time checks for config.json. Each problem found here would otherwise surface per row as a DVL row that
+ * silently gets an empty or wrong standard device tag.
+ */
+final class ConfigurationValidator {
+
+    private ConfigurationValidator() {
+    }
+
+    static List<String> validate(Configuration configuration) {
+        List<String> problems = new ArrayList<>();
+        checkSettings(configuration, problems);
+
+        Set<String> deviceTypes = new HashSet<>();
+        for (String deviceType : configuration.getDeviceTypes()) {
+            if (deviceType.isBlank()) {
+                problems.add("deviceTypes contains a blank entry");
+            } else if (!deviceTypes.add(deviceType)) {
+                problems.add("deviceTypes lists '" + deviceType + "' twice");
+            }
+        }
+
+        // Device keys a DVL row can resolve to; rows whose descriptor matches no key resolve to "<type>-".
+        Set<String> reachable = new HashSet<>();
+        reachable.add("-");
+        deviceTypes.forEach(deviceType -> reachable.add(deviceType + "-"));
+
+        configuration.getDeviceKeyMapping().forEach((deviceType, keys) -> {
+            String path = "deviceKeyMapping." + deviceType;
+            boolean typeReachable = deviceTypes.contains(deviceType);
+            if (!typeReachable) {
+                problems.add(path + ": '" + deviceType + "' is not listed in deviceTypes, so no device tag is classified as it");
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                if (key.isBlank()) {
+                    problems.add(path + " contains a blank key");
+                    continue;
+                }
+                String shadowedBy = earlierMatch(keys, i);
+                if (key.equals(shadowedBy)) {
+                    problems.add(path + " lists '" + key + "' twice");
+                } else if (shadowedBy != null) {
+                    problems.add(path + ": '" + key + "' is never chosen, the earlier key '" + shadowedBy
+                            + "' matches every point descriptor that contains it");
+                } else if (typeReachable) {
+                    reachable.add(deviceType + "-" + key);
+                }
+                if (!configuration.getDeviceTagMapping().containsKey(deviceType + "-" + key)) {
+                    problems.add(path + ": '" + key + "' has no deviceTagMapping entry '" + deviceType + "-" + key + "'");
+                }
+            }
+        });
+
+        configuration.getDeviceTagMapping().forEach((deviceKey, standardDeviceTag) -> {
+            if (!reachable.contains(deviceKey)) {
+                problems.add("deviceTagMapping: '" + deviceKey + "' is unreachable, no device type and descriptor key in deviceKeyMapping produce it");
+            }
+            if (standardDeviceTag == null || standardDeviceTag.isBlank()) {
+                problems.add("deviceTagMapping: '" + deviceKey + "' maps to an empty standard device tag");
+            }
+        });
+        return problems;
+    }
+
+    private static void checkSettings(Configuration configuration, List<String> problems) {
+        if (configuration.getDeviceTagIndex() < 0 || configuration.getPointDescriptionIndex() < 0
+                || configuration.getDeviceTagIndexInOutputFile() < 0 || configuration.getPointDescriptionIndexInOutputFile() < 0) {
+            problems.add("column indices must not be negative");
+        }
+        if (configuration.getRequiredHeaders().isEmpty()) {
+            problems.add("requiredHeaders is empty");
+        }
+        if (configuration.getStreamingRowWindow() < 1) {
+            problems.add("streamingRowWindow must be at least 1");
+        }
+        if (configuration.getXlsxCompressionLevel() < -1 || configuration.getXlsxCompressionLevel() > 9) {
+            problems.add("xlsxCompressionLevel must be between -1 and 9");
+        }
+        if (configuration.getXlsxCompressionWorkers() < 0) {
+            problems.add("xlsxCompressionWorkers must not be negative");
+        }
+        if (configuration.getTransformWorkers() < 0) {
+            problems.add("transformWorkers must not be negative");
+        }
+        if (configuration.getTransformWindow() < 1) {
+            problems.add("transformWindow must be at least 1");
+        }
+        if (configuration.getMetricsDumpIntervalSeconds() < 0) {
+            problems.add("metricsDumpIntervalSeconds must not be negative");
+        }
+        if (configuration.getOutputFormats().isEmpty()) {
+            problems.add("outputFormats is empty");
+        } else if (new HashSet<>(configuration.getOutputFormats()).size() < configuration.getOutputFormats().size()) {
+            problems.add("outputFormats lists a format twice");
+        }
+        checkSheetMappings(configuration.getSheetMappings(), problems);
+    }
+
+    private static void checkSheetMappings(List<SheetMapping> sheetMappings, List<String> problems) {
+        if (sheetMappings.isEmpty()) {
+            problems.add("sheetMappings is empty");
+        }
+        Set<String> inputSheets = new HashSet<>();
+        Set<String> outputSheets = new HashSet<>();
+        for (int i = 0; i < sheetMappings.size(); i++) {
+            SheetMapping mapping = sheetMappings.get(i);
+            String path = "sheetMappings[" + i + "]";
+            if (isBlank(mapping.getInputSheet()) || isBlank(mapping.getReferenceSheet()) || isBlank(mapping.getOutputSheet())) {
+                problems.add(path + " needs an inputSheet, a referenceSheet and an outputSheet");
+                continue;
+            }
+            if (!inputSheets.add(mapping.getInputSheet().toLowerCase())) {
+                problems.add(path + ": input sheet '" + mapping.getInputSheet() + "' is mapped twice");
+            }
+            // Excel sheet names are case-insensitive.
+            if (!outputSheets.add(mapping.getOutputSheet().toLowerCase())) {
+                problems.add(path + ": output sheet '" + mapping.getOutputSheet() + "' is written by two mappings");
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Keys are tried in list order and the first one contained in the descriptor wins, so a key is dead if an
+     * earlier key is contained in it.
+     */
+    private static String earlierMatch(List<String> keys, int index) {
+        String key = keys.get(index);
+        for (int i = 0; i < index; i++) {
+            if (!keys.get(i).isBlank() && key.contains(keys.get(i))) {
+                return keys.get(i);
+            }
+        }
+        return null;
+    }
+}
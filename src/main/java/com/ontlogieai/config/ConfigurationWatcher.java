@@ -0,0 +1,90 @@
+package com.ontlogieai.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads an external configuration file when it changes. The file is polled rather than watched, since
+ * editors usually replace the file instead of writing to it. A change that fails to load or validate is
+ * logged and the current configuration is kept.
+ */
+public class ConfigurationWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationWatcher.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 2000;
+
+    private final Path file;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "configuration-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileTime lastModified;
+    private long lastSize;
+
+    private ConfigurationWatcher(Path file) {
+        this.file = file;
+        this.lastModified = modifiedTime();
+        this.lastSize = size();
+    }
+
+    /**
+     * Starts watching the file set with {@link ConfigurationReader#useFile}. Returns null when the configuration
+     * comes from the classpath, where it cannot change.
+     */
+    public static ConfigurationWatcher start() {
+        Path file = ConfigurationReader.getConfigFile();
+        if (file == null) {
+            return null;
+        }
+        ConfigurationWatcher watcher = new ConfigurationWatcher(file);
+        watcher.scheduler.scheduleWithFixedDelay(watcher::poll, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        LOGGER.info("Reloading configuration when {} changes", file);
+        return watcher;
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void poll() {
+        FileTime modified = modifiedTime();
+        long size = size();
+        if (modified == null || (modified.equals(lastModified) && size == lastSize)) {
+            return;
+        }
+        lastModified = modified;
+        lastSize = size;
+        try {
+            ConfigurationReader.reload();
+            LOGGER.info("Configuration reloaded from {}", file);
+        } catch (RuntimeException e) {
+            LOGGER.error("Keeping the current configuration, {} could not be loaded: {}", file, e.getMessage());
+        }
+    }
+
+    private FileTime modifiedTime() {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long size() {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
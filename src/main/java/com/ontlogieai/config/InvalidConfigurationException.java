@@ -0,0 +1,20 @@
+package com.ontlogieai.config;
+
+import java.util.List;
+
+/**
+ * Thrown when config.json parses but describes mappings that can never produce a standard device tag.
+ */
+public class InvalidConfigurationException extends RuntimeException {
+
+    private final List<String> problems;
+
+    public InvalidConfigurationException(String source, List<String> problems) {
+        super("Invalid configuration " + source + ":\n  " + String.join("\n  ", problems));
+        this.problems = List.copyOf(problems);
+    }
+
+    public List<String> getProblems() {
+        return problems;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ontlogieai.config;
+
+/**
+ * Which input keeps a device tag that occurs in several inputs of a merge.
+ */
+public enum MergeDuplicates {
+    /** The first input in argument order that contains the tag keeps it. */
+    FIRST,
+    /** The last input in argument order that contains the tag keeps it. */
+    LAST,
+    /** Every input keeps its rows; nothing is removed. */
+    ALL
+}
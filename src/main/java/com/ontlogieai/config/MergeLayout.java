@@ -0,0 +1,11 @@
+package com.ontlogieai.config;
+
+/**
+ * How a merge lays out the generated rows of its inputs.
+ */
+public enum MergeLayout {
+    /** One generated sheet per input, named after the input file. */
+    PER_FLOOR,
+    /** A single generated sheet with an extra column naming the input of every row. */
+    COMBINED
+}
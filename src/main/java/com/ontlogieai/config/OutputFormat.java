@@ -0,0 +1,24 @@
+package com.ontlogieai.config;
+
+/**
+ * Files a conversion writes. Text formats hold only the generated APL sheet and are written next to the xlsx
+ * output under the same base name, e.g. {@code Processed_X.csv} for {@code Processed_X.xlsx}.
+ */
+public enum OutputFormat {
+    /** The APL workbook: reference sheets plus the generated sheet. */
+    XLSX(".xlsx"),
+    /** The generated sheet as RFC 4180 CSV with a header line. */
+    CSV(".csv"),
+    /** The generated sheet as JSON Lines, one object per row keyed by column header. */
+    JSONL(".jsonl");
+
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ontlogieai.config;
+
+public enum OutputMode {
+    /** Builds the whole output in an XSSFWorkbook before writing it. */
+    IN_MEMORY,
+    /** Keeps only a window of rows on the heap and spills the rest to temp files (SXSSF). */
+    STREAMING
+}
@@ -0,0 +1,28 @@
+package com.ontlogieai.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One sheet of a DVL file to convert: the input sheet, the reference sheet its rows are looked up in and the
+ * generated sheet of the APL workbook they are written to.
+ */
+@Getter
+@Setter(AccessLevel.PRIVATE)
+public class SheetMapping {
+
+    private String inputSheet;
+    private String referenceSheet;
+    private String outputSheet;
+
+    // For Jackson.
+    private SheetMapping() {
+    }
+
+    public SheetMapping(String inputSheet, String referenceSheet, String outputSheet) {
+        this.inputSheet = inputSheet;
+        this.referenceSheet = referenceSheet;
+        this.outputSheet = outputSheet;
+    }
+}
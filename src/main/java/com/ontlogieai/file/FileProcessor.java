@@ -1,46 +1,153 @@
 package com.ontlogieai.file;
 
+import com.ontlogieai.cache.ConversionCache;
+import com.ontlogieai.cache.ConversionFingerprint;
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.reference.ReferenceDataCache;
+import com.ontlogieai.transformation.ConversionProgress;
 import com.ontlogieai.transformation.ExcelProcessor;
 import com.ontlogieai.Main;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.swing.*;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class FileProcessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileProcessor.class);
 
     private final ExcelProcessor excelProcessor;
+    private final ConversionCache conversionCache;
 
     public FileProcessor(){
         excelProcessor = new ExcelProcessor();
+        conversionCache = ConversionCache.fromConfiguration(ConfigurationReader.getConfiguration());
     }
 
-    public void handleFileUpload(JFrame frame) {
-        JFileChooser fileChooser = new JFileChooser();
-        if (fileChooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
-            processFile(fileChooser.getSelectedFile());
-        }
+    /**
+     * @return true if the file was converted, false if it was rejected or the conversion failed
+     */
+    public boolean processFile(File file) {
+        return processFile(file, getOutputFile(file));
     }
 
-    public void processFile(File file) {
+    /**
+     * As {@link #processFile(File)}, writing to {@code outputFile} instead of the default output name.
+     */
+    public boolean processFile(File file, File outputFile) {
         if (!(file.getName().endsWith(".xls") || file.getName().endsWith(".xlsx"))) {
             LOGGER.warn("Invalid file format: {}", file.getName());
-            return;
+            return false;
         }
 
-        String newFileName = "Processed_" + file.getName();
-        File outputFile = new File(Main.UPLOAD_DIR + newFileName);
-
         try {
             LOGGER.info("Processing file: {}", file.getName());
-            excelProcessor.readAndWriteExcelFile(file, outputFile);
-            LOGGER.info("File processed successfully: {} at location {}", newFileName, outputFile.getAbsolutePath());
-        } catch (IOException e) {
+            File written = convert(file, outputFile, ConversionProgress.NONE);
+            LOGGER.info("File processed successfully: {} at location {}", written.getName(), written.getAbsolutePath());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // POI reports unreadable workbooks with runtime exceptions.
             LOGGER.error("Failed to process file: {}", file.getName(), e);
+            return false;
         }
     }
+
+    public File convert(File file) throws IOException {
+        return convert(file, ConversionProgress.NONE);
+    }
+
+    /**
+     * Converts {@code file}, or restores its cached output, reporting rows to {@code progress}.
+     *
+     * @return the output of the first configured output format
+     */
+    public File convert(File file, ConversionProgress progress) throws IOException {
+        return convert(file, getOutputFile(file), progress);
+    }
+
+    /**
+     * As {@link #convert(File, ConversionProgress)}, writing to {@code outputFile} instead of the default output name.
+     */
+    public File convert(File file, File outputFile, ConversionProgress progress) throws IOException {
+        Configuration configuration = ConfigurationReader.getConfiguration();
+        // The cache holds xlsx workbooks only, and only from a build it can tell apart from others.
+        if (!configuration.isResultCache() || !configuration.isXlsxOnly() || !ConversionFingerprint.isToolVersionKnown()) {
+            excelProcessor.readAndWriteExcelFile(file, outputFile, configuration, progress);
+            return ExcelProcessor.outputFile(outputFile, configuration.getOutputFormats().get(0), configuration.isGzipTextOutput());
+        }
+
+        String key = conversionCache.key(file, configuration, ReferenceDataCache.checksum());
+        if (conversionCache.restore(key, outputFile)) {
+            LOGGER.info("Input, configuration and reference workbook unchanged, reused cached output for {}", file.getName());
+            return outputFile;
+        }
+        excelProcessor.readAndWriteExcelFile(file, outputFile, configuration, progress);
+        conversionCache.store(key, outputFile);
+        return outputFile;
+    }
+
+    public static File getOutputFile(File inputFile) {
+        return new File(Main.UPLOAD_DIR + "Processed_" + inputFile.getName());
+    }
+
+    /**
+     * Output files for converting {@code inputFiles} together. Inputs with a unique name get {@link #getOutputFile};
+     * inputs sharing a name, e.g. from several directories, are named after their path below the directory they
+     * have in common ({@code Processed_floor6_DVL.xlsx}, {@code Processed_floor7_DVL.xlsx}), so no output replaces
+     * another.
+     */
+    public static Map<File, File> getOutputFiles(List<File> inputFiles) {
+        Map<String, List<File>> byName = new HashMap<>();
+        for (File input : inputFiles) {
+            byName.computeIfAbsent(input.getName(), name -> new ArrayList<>()).add(input);
+        }
+
+        Map<File, File> outputs = new LinkedHashMap<>();
+        Set<String> taken = new HashSet<>();
+        for (File input : inputFiles) {
+            if (byName.get(input.getName()).size() == 1) {
+                outputs.put(input, getOutputFile(input));
+                taken.add(input.getName());
+            }
+        }
+        for (File input : inputFiles) {
+            List<File> sameName = byName.get(input.getName());
+            if (sameName.size() == 1) continue;
+
+            String name = relativeName(commonDirectory(sameName), input);
+            String unique = name;
+            for (int attempt = 2; !taken.add(unique); attempt++) {
+                unique = name.replaceFirst("(\\.xlsx?)$", "-" + attempt + "$1");
+            }
+            LOGGER.warn("Several inputs are named {}, writing {} to Processed_{}", input.getName(), input.getPath(), unique);
+            outputs.put(input, new File(Main.UPLOAD_DIR + "Processed_" + unique));
+        }
+        return outputs;
+    }
+
+    private static Path commonDirectory(List<File> files) {
+        Path common = files.get(0).getAbsoluteFile().toPath().normalize().getParent();
+        for (File file : files) {
+            Path directory = file.getAbsoluteFile().toPath().normalize().getParent();
+            while (!directory.startsWith(common)) {
+                common = common.getParent();
+            }
+        }
+        return common;
+    }
+
+    private static String relativeName(Path directory, File file) {
+        Path relative = directory.relativize(file.getAbsoluteFile().toPath().normalize());
+        return relative.toString().replace(File.separatorChar, '_');
+    }
 }
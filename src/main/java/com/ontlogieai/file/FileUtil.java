@@ -17,4 +17,14 @@ public class FileUtil {
             LOGGER.error("Failed to create directory: {}", dirPath);
         }
     }
+
+    public static boolean isExcelFile(File file) {
+        String name = file.getName();
+        return (name.endsWith(".xls") || name.endsWith(".xlsx")) && !isLockFile(file);
+    }
+
+    /** Excel keeps an owner file named "~$&lt;workbook&gt;" next to every open workbook. */
+    public static boolean isLockFile(File file) {
+        return file.getName().startsWith("~$");
+    }
 }
@@ -0,0 +1,7 @@
+package com.ontlogieai.input;
+
+/**
+ * The two columns of a DVL sheet row that drive the conversion.
+ */
+public record DvlRow(int rowNum, String deviceTag, String pointDescription) {
+}
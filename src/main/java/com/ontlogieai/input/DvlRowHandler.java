@@ -0,0 +1,23 @@
+package com.ontlogieai.input;
+
+/**
+ * Receives the rows of a DVL sheet in sheet order while it is being read.
+ */
+public interface DvlRowHandler {
+
+    /** Called once the requested sheet has been located, before any header lookup. */
+    void startSheet();
+
+    /**
+     * Called after {@link #startSheet()} when the file records the index of the last row of the sheet; the value
+     * is only as accurate as the writer of the file made it.
+     */
+    default void sheetSize(int lastRowNum) {
+    }
+
+    /** Called once the header row has been found and both required columns resolved. */
+    void headerRow(int deviceTagColumnIndex, int pointDescriptorColumnIndex);
+
+    /** Called for every non-empty row of the sheet, header rows included. */
+    void row(DvlRow row);
+}
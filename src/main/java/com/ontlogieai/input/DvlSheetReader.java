@@ -0,0 +1,46 @@
+package com.ontlogieai.input;
+
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads a single sheet of a DVL file and pushes its rows to a {@link DvlRowHandler}.
+ */
+public interface DvlSheetReader {
+
+    enum Result {
+        SHEET_NOT_FOUND,
+        HEADERS_NOT_FOUND,
+        COMPLETED
+    }
+
+    Result read(File file, String sheetName, DvlRowHandler handler) throws IOException;
+
+    /**
+     * Picks the event-based reader matching the file format, or the workbook (DOM) reader when streaming is off.
+     */
+    static DvlSheetReader forFile(File file, boolean streaming, List<String> requiredHeaders) {
+        if (!streaming) {
+            return new WorkbookSheetReader(requiredHeaders);
+        }
+        return file.getName().endsWith(".xlsx") ? new XlsxEventSheetReader(requiredHeaders) : new XlsEventSheetReader(requiredHeaders);
+    }
+
+    /**
+     * Loads {@code file} as a workbook, for reading several of its sheets through {@link #forWorkbook} instead of
+     * loading the file once per sheet.
+     */
+    static Workbook loadWorkbook(File file) throws IOException {
+        return WorkbookSheetReader.createWorkbook(file);
+    }
+
+    /**
+     * The workbook reader over an already loaded {@code workbook}, which the caller closes.
+     */
+    static DvlSheetReader forWorkbook(Workbook workbook, List<String> requiredHeaders) {
+        return new WorkbookSheetReader(requiredHeaders, workbook);
+    }
+}
@@ -0,0 +1,130 @@
+package com.ontlogieai.input;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Turns raw rows (column index to formatted cell text) into {@link DvlRow}s. The header is looked up in row 0
+ * and then row 1; a candidate row qualifies when it is not empty and contains every required header.
+ * Rows seen before the header is resolved are buffered and replayed, so handlers see the same rows as a
+ * full iteration of the sheet would give them.
+ */
+class HeaderRowDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeaderRowDetector.class);
+
+    static final String DEVICE_TAG_HEADER = "Device Tag";
+    static final String POINT_DESCRIPTOR_HEADER = "Point Descriptor";
+
+    private final List<String> requiredHeaders;
+    private final DvlRowHandler handler;
+    private final List<Map.Entry<Integer, Map<Integer, String>>> pendingRows = new ArrayList<>(2);
+
+    private boolean resolved;
+    private boolean failed;
+    private int deviceTagColumnIndex = -1;
+    private int pointDescriptorColumnIndex = -1;
+
+    HeaderRowDetector(List<String> requiredHeaders, DvlRowHandler handler) {
+        this.requiredHeaders = requiredHeaders;
+        this.handler = handler;
+    }
+
+    /**
+     * @return false once the header lookup has failed and the rest of the sheet can be skipped
+     */
+    boolean row(int rowNum, Map<Integer, String> cells) {
+        if (failed) return false;
+        if (resolved) {
+            emit(rowNum, cells);
+            return true;
+        }
+        if (rowNum > 1) {
+            resolveFromPending();
+            if (failed) return false;
+            emit(rowNum, cells);
+            return true;
+        }
+        pendingRows.add(Map.entry(rowNum, cells));
+        if (rowNum == 0 && isHeaderRow(cells)) {
+            resolve(cells);
+        } else if (rowNum == 1) {
+            resolveFromPending();
+        }
+        return !failed;
+    }
+
+    DvlSheetReader.Result finish() {
+        if (!resolved && !failed) {
+            resolveFromPending();
+        }
+        return resolved ? DvlSheetReader.Result.COMPLETED : DvlSheetReader.Result.HEADERS_NOT_FOUND;
+    }
+
+    private void resolveFromPending() {
+        for (Map.Entry<Integer, Map<Integer, String>> pending : pendingRows) {
+            if (isHeaderRow(pending.getValue())) {
+                resolve(pending.getValue());
+                return;
+            }
+        }
+        LOGGER.error("Did not find the required headers in the Excel file");
+        failed = true;
+        pendingRows.clear();
+    }
+
+    private void resolve(Map<Integer, String> headerCells) {
+        deviceTagColumnIndex = getColumnIndex(headerCells, DEVICE_TAG_HEADER);
+        pointDescriptorColumnIndex = getColumnIndex(headerCells, POINT_DESCRIPTOR_HEADER);
+        if (deviceTagColumnIndex == -1 || pointDescriptorColumnIndex == -1) {
+            failed = true;
+            pendingRows.clear();
+            return;
+        }
+        resolved = true;
+        handler.headerRow(deviceTagColumnIndex, pointDescriptorColumnIndex);
+        for (Map.Entry<Integer, Map<Integer, String>> pending : pendingRows) {
+            emit(pending.getKey(), pending.getValue());
+        }
+        pendingRows.clear();
+    }
+
+    private void emit(int rowNum, Map<Integer, String> cells) {
+        if (isRowEmpty(cells)) {
+            LOGGER.debug("Skipping empty row");
+            return;
+        }
+        handler.row(new DvlRow(rowNum,
+                cells.getOrDefault(deviceTagColumnIndex, ""),
+                cells.getOrDefault(pointDescriptorColumnIndex, "")));
+    }
+
+    private boolean isHeaderRow(Map<Integer, String> cells) {
+        if (isRowEmpty(cells)) return false;
+        Set<String> headersInRow = new HashSet<>();
+        for (String value : cells.values()) {
+            headersInRow.add(value.trim());
+        }
+        return headersInRow.containsAll(requiredHeaders);
+    }
+
+    private static int getColumnIndex(Map<Integer, String> headerCells, String columnName) {
+        for (Map.Entry<Integer, String> cell : headerCells.entrySet()) {
+            if (cell.getValue().equalsIgnoreCase(columnName)) {
+                return cell.getKey();
+            }
+        }
+        return -1;
+    }
+
+    static boolean isRowEmpty(Map<Integer, String> cells) {
+        for (String value : cells.values()) {
+            if (!value.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
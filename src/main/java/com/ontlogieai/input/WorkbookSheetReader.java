@@ -0,0 +1,69 @@
+package com.ontlogieai.input;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the sheet through a fully loaded workbook. Kept as a fallback for files the event readers cannot handle.
+ * Given an already loaded workbook it reads from that instead; different sheets of it may be read concurrently.
+ */
+class WorkbookSheetReader implements DvlSheetReader {
+
+    private final List<String> requiredHeaders;
+    private final Workbook loaded;
+
+    WorkbookSheetReader(List<String> requiredHeaders) {
+        this(requiredHeaders, null);
+    }
+
+    WorkbookSheetReader(List<String> requiredHeaders, Workbook loaded) {
+        this.requiredHeaders = requiredHeaders;
+        this.loaded = loaded;
+    }
+
+    @Override
+    public Result read(File file, String sheetName, DvlRowHandler handler) throws IOException {
+        if (loaded != null) {
+            return read(loaded, sheetName, handler);
+        }
+        try (Workbook workbook = createWorkbook(file)) {
+            return read(workbook, sheetName, handler);
+        }
+    }
+
+    private Result read(Workbook workbook, String sheetName, DvlRowHandler handler) {
+        Sheet sheet = workbook.getSheet(sheetName);
+        if (sheet == null) {
+            return Result.SHEET_NOT_FOUND;
+        }
+        handler.startSheet();
+        handler.sheetSize(sheet.getLastRowNum());
+        HeaderRowDetector detector = new HeaderRowDetector(requiredHeaders, handler);
+        DataFormatter formatter = new DataFormatter();
+        formatter.setUseCachedValuesForFormulaCells(true);
+        for (Row row : sheet) {
+            Map<Integer, String> cells = new TreeMap<>();
+            for (Cell cell : row) {
+                cells.put(cell.getColumnIndex(), formatter.formatCellValue(cell));
+            }
+            if (!detector.row(row.getRowNum(), cells)) {
+                break;
+            }
+        }
+        return detector.finish();
+    }
+
+    static Workbook createWorkbook(File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return file.getName().endsWith(".xlsx") ? new XSSFWorkbook(fis) : new HSSFWorkbook(fis);
+        }
+    }
+}
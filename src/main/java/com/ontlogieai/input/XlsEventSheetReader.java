@@ -0,0 +1,167 @@
+package com.ontlogieai.input;
+
+import org.apache.poi.hssf.eventusermodel.*;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Streams one sheet of an .xls file through the HSSF event API. Records of other sheets are skipped and
+ * reading stops at the end of the requested sheet.
+ */
+class XlsEventSheetReader implements DvlSheetReader {
+
+    private final List<String> requiredHeaders;
+
+    XlsEventSheetReader(List<String> requiredHeaders) {
+        this.requiredHeaders = requiredHeaders;
+    }
+
+    @Override
+    public Result read(File file, String sheetName, DvlRowHandler handler) throws IOException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        SheetListener listener = new SheetListener(sheetName, new HeaderRowDetector(requiredHeaders, handler), handler);
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(listener);
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(file, true)) {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fileSystem);
+        } catch (HSSFUserException e) {
+            throw new IOException("Failed to read sheet '" + sheetName + "' of " + file.getName(), e);
+        }
+        return listener.result();
+    }
+
+    private static final class SheetListener extends AbortableHSSFListener {
+
+        private static final short CONTINUE = 0;
+        private static final short STOP = 1;
+
+        private final String sheetName;
+        private final HeaderRowDetector detector;
+        private final DvlRowHandler handler;
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(record -> { });
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+
+        private BoundSheetRecord[] orderedSheets;
+        private SSTRecord sharedStrings;
+        private int depth;
+        private int sheetIndex = -1;
+        private boolean inTargetSheet;
+        private boolean sheetFound;
+        private boolean stopped;
+
+        private int currentRow = -1;
+        private Map<Integer, String> cells = new TreeMap<>();
+        private FormulaRecord pendingStringFormula;
+
+        SheetListener(String sheetName, HeaderRowDetector detector, DvlRowHandler handler) {
+            this.sheetName = sheetName;
+            this.detector = detector;
+            this.handler = handler;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            formats.processRecordInternally(record);
+
+            if (record instanceof BoundSheetRecord boundSheet) {
+                boundSheets.add(boundSheet);
+            } else if (record instanceof SSTRecord sst) {
+                sharedStrings = sst;
+            } else if (record instanceof BOFRecord bof) {
+                depth++;
+                if (depth == 1 && bof.getType() != BOFRecord.TYPE_WORKBOOK) {
+                    startSubstream();
+                }
+            } else if (record instanceof EOFRecord) {
+                depth--;
+                if (depth == 0 && inTargetSheet) {
+                    flushRow();
+                    return STOP;
+                }
+            } else if (record instanceof DimensionsRecord dimensions && inTargetSheet && depth == 1) {
+                // The last row of the dimensions record is exclusive.
+                handler.sheetSize(dimensions.getLastRow() - 1);
+            } else if (inTargetSheet && depth == 1) {
+                return cellRecord(record) ? CONTINUE : STOP;
+            }
+            return CONTINUE;
+        }
+
+        private void startSubstream() {
+            if (orderedSheets == null) {
+                orderedSheets = BoundSheetRecord.orderByBofPosition(boundSheets);
+            }
+            sheetIndex++;
+            inTargetSheet = sheetIndex < orderedSheets.length
+                    && orderedSheets[sheetIndex].getSheetname().equalsIgnoreCase(sheetName);
+            if (inTargetSheet) {
+                sheetFound = true;
+                handler.startSheet();
+            }
+        }
+
+        private boolean cellRecord(Record record) {
+            if (record instanceof StringRecord stringRecord && pendingStringFormula != null) {
+                put(pendingStringFormula, stringRecord.getString());
+                pendingStringFormula = null;
+            } else if (record instanceof LabelSSTRecord label) {
+                put(label, sharedStrings.getString(label.getSSTIndex()).getString());
+            } else if (record instanceof LabelRecord label) {
+                put(label.getRow(), label.getColumn(), label.getValue());
+            } else if (record instanceof NumberRecord number) {
+                put(number, formats.formatNumberDateCell(number));
+            } else if (record instanceof BoolErrRecord boolErr) {
+                put(boolErr, boolErr.isBoolean() ? Boolean.toString(boolErr.getBooleanValue()).toUpperCase() : "");
+            } else if (record instanceof BlankRecord blank) {
+                put(blank, "");
+            } else if (record instanceof FormulaRecord formula) {
+                if (formula.hasCachedResultString()) {
+                    pendingStringFormula = formula;
+                } else if (formula.getCachedResultTypeEnum() == CellType.NUMERIC) {
+                    put(formula, formats.formatNumberDateCell(formula));
+                } else if (formula.getCachedResultTypeEnum() == CellType.BOOLEAN) {
+                    put(formula, Boolean.toString(formula.getCachedBooleanValue()).toUpperCase());
+                } else {
+                    put(formula, "");
+                }
+            }
+            return !stopped;
+        }
+
+        private void put(CellValueRecordInterface cell, String value) {
+            put(cell.getRow(), cell.getColumn(), value);
+        }
+
+        private void put(int row, int column, String value) {
+            if (row != currentRow) {
+                flushRow();
+                currentRow = row;
+            }
+            cells.put(column, value == null ? "" : value);
+        }
+
+        private void flushRow() {
+            if (currentRow >= 0 && !stopped) {
+                stopped = !detector.row(currentRow, cells);
+            }
+            cells = new TreeMap<>();
+            currentRow = -1;
+        }
+
+        Result result() {
+            return sheetFound ? detector.finish() : Result.SHEET_NOT_FOUND;
+        }
+    }
+}
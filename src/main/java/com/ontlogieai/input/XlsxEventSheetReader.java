@@ -0,0 +1,123 @@
+package com.ontlogieai.input;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Streams one sheet of an .xlsx file through XSSF's SAX event model. Only the shared strings, the styles and
+ * the XML of the requested sheet are parsed; no workbook object graph is built.
+ */
+class XlsxEventSheetReader implements DvlSheetReader {
+
+    private final List<String> requiredHeaders;
+
+    XlsxEventSheetReader(List<String> requiredHeaders) {
+        this.requiredHeaders = requiredHeaders;
+    }
+
+    @Override
+    public Result read(File file, String sheetName, DvlRowHandler handler) throws IOException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheetStream = sheets.next()) {
+                    if (sheets.getSheetName().equalsIgnoreCase(sheetName)) {
+                        handler.startSheet();
+                        HeaderRowDetector detector = new HeaderRowDetector(requiredHeaders, handler);
+                        parseSheet(sheetStream, new ReadOnlySharedStringsTable(pkg, false), xssfReader, detector, handler);
+                        return detector.finish();
+                    }
+                }
+            }
+            return Result.SHEET_NOT_FOUND;
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to read sheet '" + sheetName + "' of " + file.getName(), e);
+        }
+    }
+
+    private static void parseSheet(InputStream sheetStream, ReadOnlySharedStringsTable strings, XSSFReader xssfReader,
+                                   HeaderRowDetector detector, DvlRowHandler handler)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(new XSSFSheetXMLHandler(xssfReader.getStylesTable(), null, strings,
+                new RowCollector(detector), new DataFormatter(), false) {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                // <dimension ref="A1:AH500"/> precedes the sheet data.
+                if ("dimension".equals(localName)) {
+                    String ref = attributes.getValue("ref");
+                    if (ref != null) {
+                        handler.sheetSize(new CellReference(ref.substring(ref.indexOf(':') + 1)).getRow());
+                    }
+                }
+                super.startElement(uri, localName, qName, attributes);
+            }
+        });
+        try {
+            parser.parse(new InputSource(sheetStream));
+        } catch (StopParsingException ignored) {
+            // header lookup failed, the rest of the sheet is not needed
+        }
+    }
+
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final HeaderRowDetector detector;
+        private Map<Integer, String> cells;
+        private int lastColumn;
+
+        RowCollector(HeaderRowDetector detector) {
+            this.detector = detector;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new TreeMap<>();
+            lastColumn = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!detector.row(rowNum, cells)) {
+                throw new StopParsingException();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            lastColumn = cellReference == null ? lastColumn + 1 : new CellReference(cellReference).getCol();
+            cells.put(lastColumn, formattedValue == null ? "" : formattedValue);
+        }
+    }
+
+    private static final class StopParsingException extends RuntimeException {
+        StopParsingException() {
+            super(null, null, false, false);
+        }
+    }
+}
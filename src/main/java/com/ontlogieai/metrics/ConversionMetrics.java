@@ -0,0 +1,156 @@
+package com.ontlogieai.metrics;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one conversion. Stage times and row counts are updated by the thread reading the input, which is
+ * also the thread writing the output; counters updated from transform workers are {@link LongAdder}s. Updating
+ * a counter never allocates, so metrics are always collected.
+ */
+public final class ConversionMetrics {
+
+    public enum Stage {
+        REFERENCE_LOAD("referenceLoad"),
+        HEADER_DETECTION("headerDetection"),
+        INPUT_PARSE("inputParse"),
+        ROW_TRANSFORM("rowTransform"),
+        WRITE("write");
+
+        private final String jsonName;
+
+        Stage(String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    private final String inputName;
+    private final long startNanos = System.nanoTime();
+    private final long[] stageNanos = new long[Stage.values().length];
+    private final LongAdder transformNanos = new LongAdder();
+    private final LongAdder resolutionCacheHits = new LongAdder();
+    private final LongAdder resolutionCacheMisses = new LongAdder();
+
+    private long rowsIn;
+    private long rowsEmitted;
+    private long rowsUnmapped;
+    private long bytesWritten;
+    private long peakHeapBytes;
+    private long durationNanos;
+    private boolean success;
+
+    public ConversionMetrics(String inputName) {
+        this.inputName = inputName;
+        ConversionStatistics.get().conversionStarted();
+    }
+
+    public void addStageNanos(Stage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    /** Called from transform workers; summed into the row transform stage. */
+    public void addTransformNanos(long nanos) {
+        transformNanos.add(nanos);
+    }
+
+    public void resolutionCacheHit() {
+        resolutionCacheHits.increment();
+    }
+
+    public void resolutionCacheMiss() {
+        resolutionCacheMisses.increment();
+    }
+
+    public void rowRead() {
+        rowsIn++;
+    }
+
+    /** Called by the writer for every DVL row; a row that produced no output rows counts as unmapped. */
+    public void rowWritten(int outputRows) {
+        rowsEmitted += outputRows;
+        if (outputRows == 0) {
+            rowsUnmapped++;
+        }
+    }
+
+    /**
+     * Ends the conversion and adds it to the {@link ConversionStatistics} of the process.
+     *
+     * @param output the written output, or null if the conversion failed
+     */
+    public void finish(File output) {
+        durationNanos = System.nanoTime() - startNanos;
+        stageNanos[Stage.ROW_TRANSFORM.ordinal()] += transformNanos.sumThenReset();
+        success = output != null;
+        bytesWritten = output != null ? output.length() : 0;
+        peakHeapBytes = ConversionStatistics.get().conversionFinished(this);
+    }
+
+    public long getStageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public long getRowsIn() {
+        return rowsIn;
+    }
+
+    public long getRowsEmitted() {
+        return rowsEmitted;
+    }
+
+    public long getRowsUnmapped() {
+        return rowsUnmapped;
+    }
+
+    public long getResolutionCacheHits() {
+        return resolutionCacheHits.sum();
+    }
+
+    public long getResolutionCacheMisses() {
+        return resolutionCacheMisses.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * The summary written next to the output. Row transform time is summed over all transform workers, so with
+     * several workers it can exceed the wall-clock duration.
+     */
+    public Map<String, Object> toJson() {
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            stages.put(stage.jsonName, millis(stageNanos[stage.ordinal()]));
+        }
+        long hits = getResolutionCacheHits();
+        long lookups = hits + getResolutionCacheMisses();
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("input", inputName);
+        json.put("success", success);
+        json.put("durationMillis", millis(durationNanos));
+        json.put("stageMillis", stages);
+        json.put("rowsIn", rowsIn);
+        json.put("rowsEmitted", rowsEmitted);
+        json.put("rowsUnmapped", rowsUnmapped);
+        json.put("resolutionCacheHitRate", lookups == 0 ? 0 : (double) hits / lookups);
+        json.put("bytesWritten", bytesWritten);
+        json.put("peakHeapBytes", peakHeapBytes);
+        return json;
+    }
+
+    static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.ontlogieai.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide totals of all {@link ConversionMetrics}, exported through JMX and optionally logged at a fixed
+ * interval by the batch, watch-folder and server modes.
+ */
+public final class ConversionStatistics implements ConversionStatisticsMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionStatistics.class);
+
+    private static final String OBJECT_NAME = "com.ontlogieai:type=ConversionStatistics";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long HEAP_SAMPLE_MILLIS = 50;
+    private static final ConversionStatistics INSTANCE = register(new ConversionStatistics());
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private final LongAdder conversions = new LongAdder();
+    private final LongAdder failedConversions = new LongAdder();
+    private final AtomicInteger activeConversions = new AtomicInteger();
+    private final LongAdder rowsIn = new LongAdder();
+    private final LongAdder rowsEmitted = new LongAdder();
+    private final LongAdder rowsUnmapped = new LongAdder();
+    private final LongAdder[] stageNanos = new LongAdder[ConversionMetrics.Stage.values().length];
+    private final LongAdder resolutionCacheHits = new LongAdder();
+    private final LongAdder resolutionCacheMisses = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private volatile long peakHeapBytes;
+    // Highest total heap use sampled since a conversion started with no other conversion running.
+    private final AtomicLong heapPeakSinceIdle = new AtomicLong();
+
+    private ScheduledExecutorService dumpScheduler;
+    private ScheduledExecutorService heapSampler;
+
+    private ConversionStatistics() {
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    public static ConversionStatistics get() {
+        return INSTANCE;
+    }
+
+    private static ConversionStatistics register(ConversionStatistics statistics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(statistics, name);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Could not register {} with JMX", OBJECT_NAME, e);
+        }
+        return statistics;
+    }
+
+    /**
+     * The heap peak is the highest total heap use sampled every {@value #HEAP_SAMPLE_MILLIS} ms while conversions
+     * run, and at their start and end. Heap use is only known per process, so the peak is reset when a conversion
+     * starts while no other conversion runs; with concurrent conversions it covers all of them.
+     */
+    void conversionStarted() {
+        if (activeConversions.getAndIncrement() == 0) {
+            heapPeakSinceIdle.set(0);
+        }
+        startHeapSampler();
+        sampleHeap();
+    }
+
+    long conversionFinished(ConversionMetrics metrics) {
+        sampleHeap();
+        long peak = heapPeakSinceIdle.get();
+        activeConversions.decrementAndGet();
+
+        conversions.increment();
+        if (!metrics.isSuccess()) {
+            failedConversions.increment();
+        }
+        rowsIn.add(metrics.getRowsIn());
+        rowsEmitted.add(metrics.getRowsEmitted());
+        rowsUnmapped.add(metrics.getRowsUnmapped());
+        for (ConversionMetrics.Stage stage : ConversionMetrics.Stage.values()) {
+            stageNanos[stage.ordinal()].add(metrics.getStageNanos(stage));
+        }
+        resolutionCacheHits.add(metrics.getResolutionCacheHits());
+        resolutionCacheMisses.add(metrics.getResolutionCacheMisses());
+        bytesWritten.add(metrics.getBytesWritten());
+        synchronized (this) {
+            peakHeapBytes = Math.max(peakHeapBytes, peak);
+        }
+        return peak;
+    }
+
+    /**
+     * Logs {@link #toJson()} every {@code intervalSeconds} on a daemon thread until the JVM exits. Does nothing
+     * if the interval is not positive or a dump is already scheduled.
+     */
+    public synchronized void startPeriodicDump(int intervalSeconds) {
+        if (intervalSeconds <= 0 || dumpScheduler != null) {
+            return;
+        }
+        dumpScheduler = daemonScheduler("conversion-statistics");
+        dumpScheduler.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private synchronized void startHeapSampler() {
+        if (heapSampler != null) {
+            return;
+        }
+        heapSampler = daemonScheduler("heap-sampler");
+        heapSampler.scheduleAtFixedRate(() -> {
+            if (activeConversions.get() > 0) {
+                sampleHeap();
+            }
+        }, HEAP_SAMPLE_MILLIS, HEAP_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sampleHeap() {
+        heapPeakSinceIdle.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    private static ScheduledExecutorService daemonScheduler(String threadName) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void dump() {
+        try {
+            LOGGER.info("Conversion statistics: {}", OBJECT_MAPPER.writeValueAsString(toJson()));
+        } catch (Exception e) {
+            LOGGER.warn("Could not log conversion statistics", e);
+        }
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> stages = new LinkedHashMap<>();
+        stages.put("referenceLoad", getReferenceLoadMillis());
+        stages.put("headerDetection", getHeaderDetectionMillis());
+        stages.put("inputParse", getInputParseMillis());
+        stages.put("rowTransform", getRowTransformMillis());
+        stages.put("write", getWriteMillis());
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("conversions", getConversions());
+        json.put("failedConversions", getFailedConversions());
+        json.put("activeConversions", getActiveConversions());
+        json.put("stageMillis", stages);
+        json.put("rowsIn", getRowsIn());
+        json.put("rowsEmitted", getRowsEmitted());
+        json.put("rowsUnmapped", getRowsUnmapped());
+        json.put("resolutionCacheHitRate", getResolutionCacheHitRate());
+        json.put("bytesWritten", getBytesWritten());
+        json.put("peakHeapBytes", getPeakHeapBytes());
+        return json;
+    }
+
+    @Override
+    public long getConversions() {
+        return conversions.sum();
+    }
+
+    @Override
+    public long getFailedConversions() {
+        return failedConversions.sum();
+    }
+
+    @Override
+    public int getActiveConversions() {
+        return activeConversions.get();
+    }
+
+    @Override
+    public long getRowsIn() {
+        return rowsIn.sum();
+    }
+
+    @Override
+    public long getRowsEmitted() {
+        return rowsEmitted.sum();
+    }
+
+    @Override
+    public long getRowsUnmapped() {
+        return rowsUnmapped.sum();
+    }
+
+    @Override
+    public double getReferenceLoadMillis() {
+        return stageMillis(ConversionMetrics.Stage.REFERENCE_LOAD);
+    }
+
+    @Override
+    public double getHeaderDetectionMillis() {
+        return stageMillis(ConversionMetrics.Stage.HEADER_DETECTION);
+    }
+
+    @Override
+    public double getInputParseMillis() {
+        return stageMillis(ConversionMetrics.Stage.INPUT_PARSE);
+    }
+
+    @Override
+    public double getRowTransformMillis() {
+        return stageMillis(ConversionMetrics.Stage.ROW_TRANSFORM);
+    }
+
+    @Override
+    public double getWriteMillis() {
+        return stageMillis(ConversionMetrics.Stage.WRITE);
+    }
+
+    @Override
+    public double getResolutionCacheHitRate() {
+        long hits = resolutionCacheHits.sum();
+        long lookups = hits + resolutionCacheMisses.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    private double stageMillis(ConversionMetrics.Stage stage) {
+        return ConversionMetrics.millis(stageNanos[stage.ordinal()].sum());
+    }
+}
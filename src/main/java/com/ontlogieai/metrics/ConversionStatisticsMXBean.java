@@ -0,0 +1,35 @@
+package com.ontlogieai.metrics;
+
+/**
+ * Totals over all conversions of the process, registered as {@code com.ontlogieai:type=ConversionStatistics}.
+ */
+public interface ConversionStatisticsMXBean {
+
+    long getConversions();
+
+    long getFailedConversions();
+
+    int getActiveConversions();
+
+    long getRowsIn();
+
+    long getRowsEmitted();
+
+    long getRowsUnmapped();
+
+    double getReferenceLoadMillis();
+
+    double getHeaderDetectionMillis();
+
+    double getInputParseMillis();
+
+    double getRowTransformMillis();
+
+    double getWriteMillis();
+
+    double getResolutionCacheHitRate();
+
+    long getBytesWritten();
+
+    long getPeakHeapBytes();
+}
@@ -0,0 +1,34 @@
+package com.ontlogieai.reference;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+
+/**
+ * Detached copy of a reference workbook cell. {@code stringValue} holds the text of STRING cells and the
+ * formula of FORMULA cells.
+ */
+public record ReferenceCell(int columnIndex, CellType type, String stringValue, double numericValue, boolean booleanValue) {
+
+    static ReferenceCell of(Cell cell) {
+        CellType type = cell.getCellType();
+        return switch (type) {
+            case STRING -> new ReferenceCell(cell.getColumnIndex(), type, cell.getStringCellValue(), 0, false);
+            case NUMERIC -> new ReferenceCell(cell.getColumnIndex(), type, null, cell.getNumericCellValue(), false);
+            case BOOLEAN -> new ReferenceCell(cell.getColumnIndex(), type, null, 0, cell.getBooleanCellValue());
+            case FORMULA -> new ReferenceCell(cell.getColumnIndex(), type, cell.getCellFormula(), 0, false);
+            default -> new ReferenceCell(cell.getColumnIndex(), type, null, 0, false);
+        };
+    }
+
+    public void copyTo(Cell targetCell) {
+        switch (type) {
+            case STRING -> targetCell.setCellValue(stringValue);
+            case NUMERIC -> targetCell.setCellValue(numericValue);
+            case BOOLEAN -> targetCell.setCellValue(booleanValue);
+            case FORMULA -> targetCell.setCellFormula(stringValue);
+            case BLANK -> targetCell.setBlank();
+            default -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ontlogieai.reference;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the Alarm-and-Parameter reference workbook. Safe to share between conversions.
+ */
+public class ReferenceData {
+
+    private final List<ReferenceSheet> sheets;
+    private final String checksum;
+
+    public ReferenceData(List<ReferenceSheet> sheets, String checksum) {
+        this.sheets = List.copyOf(sheets);
+        this.checksum = checksum;
+    }
+
+    static ReferenceData parse(byte[] content, String checksum) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content))) {
+            List<ReferenceSheet> sheets = new ArrayList<>(workbook.getNumberOfSheets());
+            for (Sheet sheet : workbook) {
+                sheets.add(ReferenceSheet.of(sheet));
+            }
+            return new ReferenceData(sheets, checksum);
+        }
+    }
+
+    public List<ReferenceSheet> getSheets() {
+        return sheets;
+    }
+
+    public ReferenceSheet getSheetAt(int index) {
+        return sheets.get(index);
+    }
+
+    /**
+     * @return the sheet named {@code name}, ignoring case like Excel does, or null if there is none
+     */
+    public ReferenceSheet getSheet(String name) {
+        for (ReferenceSheet sheet : sheets) {
+            if (sheet.getSheetName().equalsIgnoreCase(name)) {
+                return sheet;
+            }
+        }
+        return null;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+}
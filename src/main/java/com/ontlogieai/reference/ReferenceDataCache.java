@@ -0,0 +1,126 @@
+package com.ontlogieai.reference;
+
+import com.ontlogieai.Main;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Holds the parsed reference workbook for the whole process. The snapshot is parsed on first use and
+ * replaced only when the checksum of the reference file changes. A {@link ReferenceSnapshot} built from the same
+ * workbook, either on the classpath (generated at build time) or in the snapshot directory (written after the
+ * last parse), is loaded instead of parsing the workbook.
+ */
+public class ReferenceDataCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    public static final String REFERENCE_FILE = "J270-06-Alarm-And-Parameter-list.xlsx";
+    private static final Path SNAPSHOT_DIRECTORY = Paths.get(System.getProperty("dvltoapl.referenceSnapshotDir", "uploads/.cache"));
+
+    private static final Object LOCK = new Object();
+    private static volatile ReferenceData referenceData;
+
+    public static ReferenceData get() throws IOException {
+        byte[] content = readReferenceFile();
+        String checksum = checksum(content);
+
+        ReferenceData current = referenceData;
+        if (current != null && current.getChecksum().equals(checksum)) {
+            return current;
+        }
+        synchronized (LOCK) {
+            current = referenceData;
+            if (current == null || !current.getChecksum().equals(checksum)) {
+                long start = System.nanoTime();
+                current = loadSnapshot(checksum);
+                if (current == null) {
+                    current = ReferenceData.parse(content, checksum);
+                    storeSnapshot(current);
+                }
+                referenceData = current;
+                LOGGER.info("Loaded reference workbook {} ({} sheets) in {} ms", REFERENCE_FILE,
+                        current.getSheets().size(), (System.nanoTime() - start) / 1_000_000);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Checksum of the reference workbook as currently on the classpath, without parsing it.
+     */
+    public static String checksum() throws IOException {
+        return checksum(readReferenceFile());
+    }
+
+    public static void preload() {
+        try {
+            get();
+        } catch (IOException e) {
+            LOGGER.error("Failed to preload reference workbook {}", REFERENCE_FILE, e);
+        }
+    }
+
+    private static ReferenceData loadSnapshot(String checksum) throws IOException {
+        URL resource = Main.class.getClassLoader().getResource(ReferenceSnapshot.snapshotName());
+        if (resource != null) {
+            ReferenceData snapshot;
+            if ("file".equals(resource.getProtocol())) {
+                snapshot = ReferenceSnapshot.load(Paths.get(URI.create(resource.toString())), checksum);
+            } else {
+                try (InputStream inputStream = resource.openStream()) {
+                    snapshot = ReferenceSnapshot.read(ByteBuffer.wrap(inputStream.readAllBytes()), checksum);
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Ignoring unreadable reference snapshot {}: {}", resource, e.toString());
+                    snapshot = null;
+                }
+            }
+            if (snapshot != null) {
+                LOGGER.debug("Using reference snapshot {}", resource);
+                return snapshot;
+            }
+        }
+        Path file = SNAPSHOT_DIRECTORY.resolve(ReferenceSnapshot.snapshotName());
+        ReferenceData snapshot = ReferenceSnapshot.load(file, checksum);
+        if (snapshot != null) {
+            LOGGER.debug("Using reference snapshot {}", file);
+        }
+        return snapshot;
+    }
+
+    private static void storeSnapshot(ReferenceData referenceData) {
+        Path file = SNAPSHOT_DIRECTORY.resolve(ReferenceSnapshot.snapshotName());
+        try {
+            ReferenceSnapshot.write(referenceData, file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write reference snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    static byte[] readReferenceFile() throws IOException {
+        try (InputStream inputStream = Main.class.getClassLoader().getResourceAsStream(REFERENCE_FILE)) {
+            if (inputStream == null) {
+                throw new IOException("Reference Excel file not found in resources.");
+            }
+            return inputStream.readAllBytes();
+        }
+    }
+
+    static String checksum(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ontlogieai.reference;
+
+import java.util.*;
+
+/**
+ * Case-insensitive lookup from a standard device tag to the template rows of the reference sheet,
+ * kept in sheet order. Built once per reference sheet instead of scanning the sheet for every DVL row.
+ */
+public class ReferenceIndex {
+
+    private final Map<String, List<ReferenceRow>> rowsByDeviceTag;
+    private final int deviceTagColumnIndex;
+
+    private ReferenceIndex(Map<String, List<ReferenceRow>> rowsByDeviceTag, int deviceTagColumnIndex) {
+        this.rowsByDeviceTag = rowsByDeviceTag;
+        this.deviceTagColumnIndex = deviceTagColumnIndex;
+    }
+
+    public static ReferenceIndex build(ReferenceSheet sheet, int deviceTagColumnIndex) {
+        Map<String, List<ReferenceRow>> rowsByDeviceTag = new HashMap<>();
+        if (deviceTagColumnIndex != -1) {
+            for (ReferenceRow row : sheet.getRows()) {
+                String deviceTag = row.getText(deviceTagColumnIndex);
+                rowsByDeviceTag.computeIfAbsent(normalize(deviceTag), key -> new ArrayList<>()).add(row);
+            }
+        }
+        rowsByDeviceTag.replaceAll((key, rows) -> List.copyOf(rows));
+        return new ReferenceIndex(rowsByDeviceTag, deviceTagColumnIndex);
+    }
+
+    public List<ReferenceRow> getRows(String standardDeviceTag) {
+        return rowsByDeviceTag.getOrDefault(normalize(standardDeviceTag), Collections.emptyList());
+    }
+
+    /**
+     * @return every non-empty device tag of the sheet, as written in its first row
+     */
+    public List<String> getDeviceTags() {
+        List<String> deviceTags = new ArrayList<>(rowsByDeviceTag.size());
+        for (List<ReferenceRow> rows : rowsByDeviceTag.values()) {
+            String deviceTag = rows.get(0).getText(deviceTagColumnIndex);
+            if (!deviceTag.isBlank()) {
+                deviceTags.add(deviceTag);
+            }
+        }
+        return deviceTags;
+    }
+
+    public int size() {
+        return rowsByDeviceTag.size();
+    }
+
+    private static String normalize(String deviceTag) {
+        return deviceTag.toLowerCase(Locale.ROOT);
+    }
+}
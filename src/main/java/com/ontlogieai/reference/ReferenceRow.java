@@ -0,0 +1,28 @@
+package com.ontlogieai.reference;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record ReferenceRow(int rowNum, List<ReferenceCell> cells) {
+
+    static ReferenceRow of(Row row) {
+        List<ReferenceCell> cells = new ArrayList<>(Math.max(row.getLastCellNum(), 0));
+        for (Cell cell : row) {
+            cells.add(ReferenceCell.of(cell));
+        }
+        return new ReferenceRow(row.getRowNum(), List.copyOf(cells));
+    }
+
+    public String getText(int columnIndex) {
+        for (ReferenceCell cell : cells) {
+            if (cell.columnIndex() == columnIndex) {
+                return cell.type() == CellType.STRING ? cell.stringValue() : "";
+            }
+        }
+        return "";
+    }
+}
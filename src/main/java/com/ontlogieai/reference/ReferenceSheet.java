@@ -0,0 +1,57 @@
+package com.ontlogieai.reference;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ReferenceSheet {
+
+    private final String sheetName;
+    private final List<ReferenceRow> rows;
+    private final Map<Integer, ReferenceIndex> indexByColumn = new ConcurrentHashMap<>();
+
+    public ReferenceSheet(String sheetName, List<ReferenceRow> rows) {
+        this.sheetName = sheetName;
+        this.rows = List.copyOf(rows);
+    }
+
+    public static ReferenceSheet of(Sheet sheet) {
+        List<ReferenceRow> rows = new ArrayList<>(sheet.getPhysicalNumberOfRows());
+        for (Row row : sheet) {
+            rows.add(ReferenceRow.of(row));
+        }
+        return new ReferenceSheet(sheet.getSheetName(), rows);
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public List<ReferenceRow> getRows() {
+        return rows;
+    }
+
+    /**
+     * Looks the column up by its header text in the first two rows, the same rows the DVL header search uses.
+     */
+    public int getColumnIndex(String columnName) {
+        for (ReferenceRow row : rows) {
+            if (row.rowNum() > 1) break;
+            for (ReferenceCell cell : row.cells()) {
+                if (cell.type() == CellType.STRING && cell.stringValue().trim().equalsIgnoreCase(columnName)) {
+                    return cell.columnIndex();
+                }
+            }
+        }
+        return -1;
+    }
+
+    public ReferenceIndex getIndex(int deviceTagColumnIndex) {
+        return indexByColumn.computeIfAbsent(deviceTagColumnIndex, column -> ReferenceIndex.build(this, column));
+    }
+}
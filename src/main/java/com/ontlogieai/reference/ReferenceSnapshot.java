@@ -0,0 +1,218 @@
+package com.ontlogieai.reference;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of {@link ReferenceData}, so that a cold start does not have to parse the reference
+ * workbook with POI. Layout (big-endian): magic, format version, SHA-256 of the workbook it was built from,
+ * a string table, then every sheet with its rows and cells, with strings stored as string table indexes.
+ * A snapshot whose version or checksum does not match is stale and ignored by {@link #load}.
+ */
+public final class ReferenceSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceSnapshot.class);
+
+    public static final String FILE_SUFFIX = ".snapshot";
+
+    private static final int MAGIC = 0x41504C52; // "APLR"
+    private static final int VERSION = 1;
+
+    private static final byte BLANK = 0;
+    private static final byte STRING = 1;
+    private static final byte NUMERIC = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte FORMULA = 4;
+    private static final byte ERROR = 5;
+
+    private ReferenceSnapshot() {
+    }
+
+    /**
+     * Build step: {@code ReferenceSnapshot <output directory>} parses the reference workbook on the classpath and
+     * writes {@code <workbook>.snapshot} into the directory, normally {@code target/classes}.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : ".");
+        byte[] content = ReferenceDataCache.readReferenceFile();
+        ReferenceData referenceData = ReferenceData.parse(content, ReferenceDataCache.checksum(content));
+        Path file = directory.resolve(snapshotName());
+        write(referenceData, file);
+        System.out.println("Wrote " + file + " (" + Files.size(file) + " bytes)");
+    }
+
+    public static String snapshotName() {
+        return ReferenceDataCache.REFERENCE_FILE.replaceFirst("\\.xlsx$", "") + FILE_SUFFIX;
+    }
+
+    public static void write(ReferenceData referenceData, Path file) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndex = new HashMap<>();
+        for (ReferenceSheet sheet : referenceData.getSheets()) {
+            intern(sheet.getSheetName(), strings, stringIndex);
+            for (ReferenceRow row : sheet.getRows()) {
+                for (ReferenceCell cell : row.cells()) {
+                    if (cell.stringValue() != null) {
+                        intern(cell.stringValue(), strings, stringIndex);
+                    }
+                }
+            }
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, referenceData.getChecksum());
+
+                out.writeInt(strings.size());
+                for (String string : strings) {
+                    writeString(out, string);
+                }
+
+                out.writeInt(referenceData.getSheets().size());
+                for (ReferenceSheet sheet : referenceData.getSheets()) {
+                    out.writeInt(stringIndex.get(sheet.getSheetName()));
+                    out.writeInt(sheet.getRows().size());
+                    for (ReferenceRow row : sheet.getRows()) {
+                        out.writeInt(row.rowNum());
+                        out.writeShort(row.cells().size());
+                        for (ReferenceCell cell : row.cells()) {
+                            writeCell(out, cell, stringIndex);
+                        }
+                    }
+                }
+            }
+            // Readers either see the previous snapshot or the complete new one.
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps the snapshot file and decodes it.
+     *
+     * @return the reference data, or null when the file is missing, unreadable or was not built from the workbook
+     * with {@code expectedChecksum}
+     */
+    public static ReferenceData load(Path file, String expectedChecksum) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), expectedChecksum);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable reference snapshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a snapshot held in {@code buffer}, for snapshots that are not a plain file (e.g. inside a jar).
+     */
+    public static ReferenceData read(ByteBuffer buffer, String expectedChecksum) {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        String checksum = readString(buffer);
+        if (!checksum.equals(expectedChecksum)) {
+            return null;
+        }
+
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(buffer);
+        }
+
+        int sheetCount = buffer.getInt();
+        List<ReferenceSheet> sheets = new ArrayList<>(sheetCount);
+        for (int s = 0; s < sheetCount; s++) {
+            String sheetName = strings[buffer.getInt()];
+            int rowCount = buffer.getInt();
+            List<ReferenceRow> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                int rowNum = buffer.getInt();
+                ReferenceCell[] cells = new ReferenceCell[buffer.getShort() & 0xFFFF];
+                for (int c = 0; c < cells.length; c++) {
+                    cells[c] = readCell(buffer, strings);
+                }
+                rows.add(new ReferenceRow(rowNum, List.of(cells)));
+            }
+            sheets.add(new ReferenceSheet(sheetName, rows));
+        }
+        return new ReferenceData(sheets, checksum);
+    }
+
+    private static void writeCell(DataOutputStream out, ReferenceCell cell, Map<String, Integer> stringIndex) throws IOException {
+        out.writeShort(cell.columnIndex());
+        switch (cell.type()) {
+            case STRING, FORMULA -> {
+                out.writeByte(cell.type() == CellType.STRING ? STRING : FORMULA);
+                out.writeInt(stringIndex.get(cell.stringValue()));
+            }
+            case NUMERIC -> {
+                out.writeByte(NUMERIC);
+                out.writeDouble(cell.numericValue());
+            }
+            case BOOLEAN -> {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(cell.booleanValue());
+            }
+            case ERROR -> out.writeByte(ERROR);
+            default -> out.writeByte(BLANK);
+        }
+    }
+
+    private static ReferenceCell readCell(ByteBuffer buffer, String[] strings) {
+        int columnIndex = buffer.getShort() & 0xFFFF;
+        byte type = buffer.get();
+        return switch (type) {
+            case STRING -> new ReferenceCell(columnIndex, CellType.STRING, strings[buffer.getInt()], 0, false);
+            case FORMULA -> new ReferenceCell(columnIndex, CellType.FORMULA, strings[buffer.getInt()], 0, false);
+            case NUMERIC -> new ReferenceCell(columnIndex, CellType.NUMERIC, null, buffer.getDouble(), false);
+            case BOOLEAN -> new ReferenceCell(columnIndex, CellType.BOOLEAN, null, 0, buffer.get() != 0);
+            case ERROR -> new ReferenceCell(columnIndex, CellType.ERROR, null, 0, false);
+            case BLANK -> new ReferenceCell(columnIndex, CellType.BLANK, null, 0, false);
+            default -> throw new IllegalStateException("Unknown cell type " + type + " in reference snapshot");
+        };
+    }
+
+    private static void intern(String string, List<String> strings, Map<String, Integer> stringIndex) {
+        if (stringIndex.putIfAbsent(string, strings.size()) == null) {
+            strings.add(string);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ontlogieai.server;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One conversion submitted to the server. Status fields are written by the worker thread and read by request
+ * threads, hence volatile.
+ */
+class ConversionJob {
+
+    enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final File inputFile;
+    private final File outputFile;
+    private final Instant submittedAt = Instant.now();
+    private final CompletableFuture<ConversionJob> completion = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ConversionJob(String id, String fileName, File inputFile, File outputFile) {
+        this.id = id;
+        this.fileName = fileName;
+        this.inputFile = inputFile;
+        this.outputFile = outputFile;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    File getInputFile() {
+        return inputFile;
+    }
+
+    File getOutputFile() {
+        return outputFile;
+    }
+
+    Status getStatus() {
+        return status;
+    }
+
+    boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    CompletableFuture<ConversionJob> getCompletion() {
+        return completion;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    /** Ignored once the job has finished, e.g. after the server failed it on shutdown. */
+    synchronized void succeeded() {
+        if (isFinished()) {
+            return;
+        }
+        finishedAt = Instant.now();
+        status = Status.SUCCEEDED;
+        completion.complete(this);
+    }
+
+    synchronized void failed(String message) {
+        if (isFinished()) {
+            return;
+        }
+        finishedAt = Instant.now();
+        error = message;
+        status = Status.FAILED;
+        completion.complete(this);
+    }
+
+    String getResultName() {
+        return "Processed_" + fileName;
+    }
+
+    Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("fileName", fileName);
+        json.put("status", status);
+        json.put("submittedAt", submittedAt.toString());
+        json.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        json.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        if (startedAt != null && finishedAt != null) {
+            json.put("durationMillis", finishedAt.toEpochMilli() - startedAt.toEpochMilli());
+        }
+        if (error != null) {
+            json.put("error", error);
+        }
+        if (status == Status.SUCCEEDED) {
+            json.put("result", "/jobs/" + id + "/result");
+        }
+        return json;
+    }
+}
@@ -0,0 +1,470 @@
+package com.ontlogieai.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.config.ConfigurationWatcher;
+import com.ontlogieai.config.OutputFormat;
+import com.ontlogieai.file.FileUtil;
+import com.ontlogieai.metrics.ConversionStatistics;
+import com.ontlogieai.reference.ReferenceDataCache;
+import com.ontlogieai.transformation.ExcelProcessor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP front end for the converter. Uploads are queued on a bounded pool that shares one warm
+ * {@link ExcelProcessor} and the cached reference data; when the queue is full requests get 503.
+ *
+ * <ul>
+ *     <li>{@code POST /convert} converts the upload and streams the workbook back</li>
+ *     <li>{@code POST /jobs} queues the upload and answers 202 with the job</li>
+ *     <li>{@code GET /jobs}, {@code GET /jobs/{id}}, {@code GET /jobs/{id}/result}, {@code DELETE /jobs/{id}}</li>
+ *     <li>{@code GET /metrics} request latencies, queue state and conversion totals, {@code GET /health}</li>
+ * </ul>
+ * Uploads are either a raw body named by {@code ?name=} or an {@code X-File-Name} header, or multipart/form-data
+ * whose first file part is converted. Bodies larger than the upload limit get 413.
+ */
+public class ConversionServer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionServer.class);
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final int RETAINED_JOBS = 500;
+    // Request threads beyond one per running or queued conversion, for status and metrics requests.
+    private static final int CONTROL_THREADS = 4;
+    private static final long CONVERT_TIMEOUT_MINUTES = 30;
+    private static final String USAGE = "Usage: --serve [--host 127.0.0.1] [--port 8080] [--workers N] [--queue N] [--max-upload-mb N]";
+
+    private final HttpServer httpServer;
+    private final ThreadPoolExecutor conversionExecutor;
+    private final ExecutorService requestExecutor;
+    private final ExcelProcessor excelProcessor = new ExcelProcessor();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final File workDir;
+    private final long maxUploadBytes;
+
+    private final Map<String, ConversionJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> finishedJobIds = new ConcurrentLinkedDeque<>();
+    private final AtomicLong jobSequence = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Map<String, LatencyRecorder> latencies = new ConcurrentSkipListMap<>();
+
+    public ConversionServer(String host, int port, int workers, int queueCapacity, long maxUploadBytes) throws IOException {
+        this.workDir = Files.createTempDirectory("dvl-server").toFile();
+        this.maxUploadBytes = maxUploadBytes;
+        this.conversionExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+        // Every running or queued POST /convert holds a request thread while it waits; more connections wait in line.
+        this.requestExecutor = Executors.newFixedThreadPool(workers + queueCapacity + CONTROL_THREADS);
+        this.httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.httpServer.createContext("/", this::handle);
+        this.httpServer.setExecutor(requestExecutor);
+    }
+
+    /**
+     * Entry point for {@code Main --serve [--host 127.0.0.1] [--port 8080] [--workers N] [--queue N]
+     * [--max-upload-mb N]}.
+     * Blocks until the JVM is shut down.
+     */
+    public static int run(String[] args) {
+        String host = "127.0.0.1";
+        int port = 8080;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int queue = 32;
+        long maxUploadMegabytes = 100;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--host" -> host = args[++i];
+                    case "--port" -> port = Integer.parseInt(args[++i]);
+                    case "--workers" -> workers = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--queue" -> queue = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--max-upload-mb" -> maxUploadMegabytes = Math.max(1, Long.parseLong(args[++i]));
+                    default -> {
+                    }
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // A non-numeric or missing option value.
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            ConversionServer server = new ConversionServer(host, port, workers, queue, maxUploadMegabytes * 1024 * 1024);
+            server.start();
+            ConfigurationWatcher.start();
+            ConversionStatistics.get().startPeriodicDump(ConfigurationReader.getConfiguration().getMetricsDumpIntervalSeconds());
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "conversion-server-shutdown"));
+            new CountDownLatch(1).await();
+            return 0;
+        } catch (IOException e) {
+            LOGGER.error("Could not start the conversion server", e);
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    public void start() {
+        ReferenceDataCache.preload();
+        httpServer.start();
+        InetSocketAddress address = httpServer.getAddress();
+        LOGGER.info("Conversion server listening on http://{}:{} with {} workers, queue {}", address.getHostString(),
+                address.getPort(), conversionExecutor.getMaximumPoolSize(), conversionExecutor.getQueue().remainingCapacity());
+    }
+
+    public void stop() {
+        httpServer.stop(1);
+        conversionExecutor.shutdownNow();
+        // Releases requests still waiting in POST /convert for a conversion that will not run any more.
+        jobs.values().forEach(job -> job.failed("Conversion server stopped"));
+        requestExecutor.shutdownNow();
+        jobs.values().forEach(this::deleteFiles);
+        workDir.delete();
+        LOGGER.info("Conversion server stopped");
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String route = "unknown";
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String[] path = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
+                    .filter(segment -> !segment.isEmpty())
+                    .toArray(String[]::new);
+
+            if (path.length == 1 && path[0].equals("convert") && method.equals("POST")) {
+                route = "POST /convert";
+                convert(exchange);
+            } else if (path.length == 1 && path[0].equals("jobs") && method.equals("POST")) {
+                route = "POST /jobs";
+                submitJob(exchange);
+            } else if (path.length == 1 && path[0].equals("jobs") && method.equals("GET")) {
+                route = "GET /jobs";
+                sendJson(exchange, 200, jobs.values().stream()
+                        .sorted(Comparator.comparing(ConversionJob::getId))
+                        .map(ConversionJob::toJson)
+                        .toList());
+            } else if (path.length == 2 && path[0].equals("jobs") && method.equals("GET")) {
+                route = "GET /jobs/{id}";
+                ConversionJob job = jobs.get(path[1]);
+                if (job == null) {
+                    sendError(exchange, 404, "Unknown job " + path[1]);
+                } else {
+                    sendJson(exchange, 200, job.toJson());
+                }
+            } else if (path.length == 2 && path[0].equals("jobs") && method.equals("DELETE")) {
+                route = "DELETE /jobs/{id}";
+                deleteJob(exchange, path[1]);
+            } else if (path.length == 3 && path[0].equals("jobs") && path[2].equals("result") && method.equals("GET")) {
+                route = "GET /jobs/{id}/result";
+                sendResult(exchange, jobs.get(path[1]));
+            } else if (path.length == 1 && path[0].equals("metrics") && method.equals("GET")) {
+                route = "GET /metrics";
+                sendJson(exchange, 200, metrics());
+            } else if (path.length == 1 && path[0].equals("health") && method.equals("GET")) {
+                route = "GET /health";
+                sendJson(exchange, 200, Map.of("status", "UP"));
+            } else {
+                sendError(exchange, 404, "No route for " + method + " " + exchange.getRequestURI().getPath());
+            }
+        } catch (Exception e) {
+            LOGGER.error("Request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            try {
+                sendError(exchange, 500, e.getMessage());
+            } catch (IOException | IllegalStateException ignored) {
+                // Headers were already sent; the client sees a truncated response.
+            }
+        } finally {
+            latencies.computeIfAbsent(route, key -> new LatencyRecorder()).record(System.nanoTime() - start);
+        }
+    }
+
+    private void convert(HttpExchange exchange) throws IOException, InterruptedException {
+        ConversionJob job = receiveAndQueue(exchange);
+        if (job == null) {
+            return;
+        }
+        try {
+            job.getCompletion().get(CONVERT_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+            sendResult(exchange, job);
+        } catch (ExecutionException e) {
+            sendError(exchange, 500, e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            sendError(exchange, 504, "Conversion did not finish within " + CONVERT_TIMEOUT_MINUTES + " minutes");
+        } finally {
+            jobs.remove(job.getId());
+            deleteFiles(job);
+        }
+    }
+
+    private void submitJob(HttpExchange exchange) throws IOException {
+        ConversionJob job = receiveAndQueue(exchange);
+        if (job != null) {
+            exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+            sendJson(exchange, 202, job.toJson());
+        }
+    }
+
+    /**
+     * Stores the upload and queues its conversion. Sends the error response and returns null when the upload is
+     * too large or not a DVL workbook, or the queue is full.
+     */
+    private ConversionJob receiveAndQueue(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength == null) {
+            // Only a chunked body may omit the length; without either the upload would be read as empty.
+            String transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+            if (transferEncoding == null || !transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+                sendError(exchange, 411, "Content-Length required");
+                return null;
+            }
+        } else {
+            long length;
+            try {
+                length = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                length = -1;
+            }
+            if (length < 0) {
+                sendError(exchange, 400, "Malformed Content-Length: " + contentLength);
+                return null;
+            }
+            if (length > maxUploadBytes) {
+                sendError(exchange, 413, "Upload exceeds " + maxUploadBytes + " bytes");
+                return null;
+            }
+        }
+        String id = String.format("%08d", jobSequence.incrementAndGet());
+        File upload = new File(workDir, id + ".upload");
+        String fileName;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(upload))) {
+            // Chunked bodies carry no Content-Length, so the limit is also enforced while copying.
+            InputStream body = new LimitedInputStream(exchange.getRequestBody(), maxUploadBytes);
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (MultipartReader.isMultipart(contentType)) {
+                fileName = new MultipartReader(body, contentType).copyFirstFile(out);
+            } else {
+                fileName = queryParameter(exchange, "name");
+                if (fileName == null) {
+                    fileName = exchange.getRequestHeaders().getFirst("X-File-Name");
+                }
+                body.transferTo(out);
+            }
+        } catch (UploadTooLargeException e) {
+            upload.delete();
+            sendError(exchange, 413, e.getMessage());
+            return null;
+        }
+
+        fileName = fileName == null ? null : new File(fileName).getName();
+        if (fileName == null || !(fileName.endsWith(".xls") || fileName.endsWith(".xlsx")) || FileUtil.isLockFile(new File(fileName))) {
+            upload.delete();
+            sendError(exchange, 400, "Expected an .xls or .xlsx upload, got " + fileName);
+            return null;
+        }
+
+        File input = new File(workDir, id + "-" + fileName);
+        Files.move(upload.toPath(), input.toPath());
+        ConversionJob job = new ConversionJob(id, fileName, input, new File(workDir, id + "-Processed_" + fileName));
+        jobs.put(id, job);
+        try {
+            conversionExecutor.execute(() -> runJob(job));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            jobs.remove(id);
+            deleteFiles(job);
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            sendError(exchange, 503, "Conversion queue is full");
+            return null;
+        }
+        return job;
+    }
+
+    private void runJob(ConversionJob job) {
+        job.started();
+        long start = System.nanoTime();
+        try {
+            Configuration configuration = ConfigurationReader.getConfiguration();
+            if (!configuration.getOutputFormats().contains(OutputFormat.XLSX)) {
+                throw new IllegalStateException("The conversion server returns xlsx workbooks, outputFormats must include XLSX");
+            }
+            excelProcessor.readAndWriteExcelFile(job.getInputFile(), job.getOutputFile(), configuration);
+            succeeded.incrementAndGet();
+            job.succeeded();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            job.failed(String.valueOf(e.getMessage()));
+        } finally {
+            latencies.computeIfAbsent("conversion", key -> new LatencyRecorder()).record(System.nanoTime() - start);
+            job.getInputFile().delete();
+            retire(job);
+        }
+    }
+
+    /** Keeps the most recent finished jobs and drops the files of older ones. */
+    private void retire(ConversionJob job) {
+        finishedJobIds.add(job.getId());
+        while (finishedJobIds.size() > RETAINED_JOBS) {
+            ConversionJob oldest = jobs.remove(finishedJobIds.poll());
+            if (oldest != null) {
+                deleteFiles(oldest);
+            }
+        }
+    }
+
+    private void sendResult(HttpExchange exchange, ConversionJob job) throws IOException {
+        if (job == null) {
+            sendError(exchange, 404, "Unknown job");
+        } else if (job.getStatus() == ConversionJob.Status.FAILED) {
+            sendJson(exchange, 500, job.toJson());
+        } else if (!job.isFinished()) {
+            sendJson(exchange, 409, job.toJson());
+        } else {
+            File output = job.getOutputFile();
+            exchange.getResponseHeaders().set("Content-Type", XLSX_CONTENT_TYPE);
+            exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"" + job.getResultName() + "\"");
+            exchange.sendResponseHeaders(200, output.length());
+            try (OutputStream out = exchange.getResponseBody()) {
+                Files.copy(output.toPath(), out);
+            }
+        }
+    }
+
+    private void deleteJob(HttpExchange exchange, String id) throws IOException {
+        ConversionJob job = jobs.get(id);
+        if (job == null) {
+            sendError(exchange, 404, "Unknown job " + id);
+        } else if (!job.isFinished()) {
+            sendJson(exchange, 409, job.toJson());
+        } else {
+            jobs.remove(id);
+            deleteFiles(job);
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private Map<String, Object> metrics() {
+        Map<String, Object> queue = new LinkedHashMap<>();
+        queue.put("workers", conversionExecutor.getMaximumPoolSize());
+        queue.put("active", conversionExecutor.getActiveCount());
+        queue.put("queued", conversionExecutor.getQueue().size());
+        queue.put("capacity", conversionExecutor.getQueue().size() + conversionExecutor.getQueue().remainingCapacity());
+        queue.put("rejected", rejected.get());
+        queue.put("succeeded", succeeded.get());
+        queue.put("failed", failed.get());
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        latencies.forEach((route, recorder) -> routes.put(route, recorder.snapshot()));
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queue", queue);
+        metrics.put("latency", routes);
+        metrics.put("conversions", ConversionStatistics.get().toJson());
+        return metrics;
+    }
+
+    private void deleteFiles(ConversionJob job) {
+        job.getInputFile().delete();
+        job.getOutputFile().delete();
+        // Metrics summary, incremental manifest and text outputs written next to the output.
+        String sidecarPrefix = job.getOutputFile().getName().replaceFirst("\\.xlsx?$", "") + ".";
+        File[] sidecars = workDir.listFiles((dir, name) -> name.startsWith(sidecarPrefix));
+        if (sidecars != null) {
+            for (File sidecar : sidecars) {
+                sidecar.delete();
+            }
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("error", String.valueOf(message)));
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static final class UploadTooLargeException extends IOException {
+        UploadTooLargeException(long limit) {
+            super("Upload exceeds " + limit + " bytes");
+        }
+    }
+
+    /** Fails with {@link UploadTooLargeException} once more than {@code limit} bytes have been read. */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long read;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws UploadTooLargeException {
+            read += n;
+            if (read > limit) {
+                throw new UploadTooLargeException(limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ontlogieai.server;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request latencies of one route: totals since start plus percentiles over the most recent samples.
+ */
+class LatencyRecorder {
+
+    private static final int WINDOW = 2048;
+
+    private final long[] recentNanos = new long[WINDOW];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    synchronized void record(long nanos) {
+        recentNanos[(int) (count % WINDOW)] = nanos;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    synchronized Map<String, Object> snapshot() {
+        long[] recent = Arrays.copyOf(recentNanos, (int) Math.min(count, WINDOW));
+        Arrays.sort(recent);
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("count", count);
+        json.put("meanMillis", count == 0 ? 0 : millis(totalNanos / count));
+        json.put("p50Millis", percentile(recent, 0.50));
+        json.put("p95Millis", percentile(recent, 0.95));
+        json.put("p99Millis", percentile(recent, 0.99));
+        json.put("maxMillis", millis(maxNanos));
+        return json;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return millis(sorted[Math.max(0, index)]);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ontlogieai.server;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams the first file part of a multipart/form-data body to an output stream without buffering the upload.
+ */
+class MultipartReader {
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=(?:\"([^\"]+)\"|([^;\\s]+))");
+    private static final Pattern FILE_NAME = Pattern.compile("filename=\"([^\"]*)\"");
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final int[] failure;
+
+    MultipartReader(InputStream in, String contentType) throws IOException {
+        Matcher matcher = BOUNDARY.matcher(contentType);
+        if (!matcher.find()) {
+            throw new IOException("Multipart request without boundary");
+        }
+        String boundary = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+        this.in = new BufferedInputStream(in);
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.failure = failureTable(delimiter);
+    }
+
+    static boolean isMultipart(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data");
+    }
+
+    /**
+     * Copies the content of the first part that carries a file name to {@code target}.
+     *
+     * @return the file name of that part, or null if the body has no file part
+     */
+    String copyFirstFile(OutputStream target) throws IOException {
+        String dashBoundary = new String(delimiter, 2, delimiter.length - 2, StandardCharsets.ISO_8859_1);
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (!line.equals(dashBoundary));
+
+        while (true) {
+            String fileName = null;
+            while ((line = readLine()) != null && !line.isEmpty()) {
+                if (line.toLowerCase(Locale.ROOT).startsWith("content-disposition")) {
+                    Matcher matcher = FILE_NAME.matcher(line);
+                    if (matcher.find()) {
+                        fileName = matcher.group(1);
+                    }
+                }
+            }
+            if (line == null) {
+                return null;
+            }
+            if (fileName != null) {
+                if (!copyUntilDelimiter(target)) {
+                    throw new IOException("Multipart body ended inside the file part");
+                }
+                return fileName;
+            }
+            if (!copyUntilDelimiter(OutputStream.nullOutputStream())) {
+                return null;
+            }
+            // "--" after the delimiter closes the body, CRLF starts the next part.
+            String rest = readLine();
+            if (rest == null || rest.startsWith("--")) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Copies bytes up to the next delimiter, matching it with a KMP automaton so every byte is read once.
+     */
+    private boolean copyUntilDelimiter(OutputStream target) throws IOException {
+        int matched = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            while (matched > 0 && delimiter[matched] != (byte) b) {
+                int fallback = failure[matched - 1];
+                target.write(delimiter, 0, matched - fallback);
+                matched = fallback;
+            }
+            if (delimiter[matched] == (byte) b) {
+                matched++;
+                if (matched == delimiter.length) {
+                    return true;
+                }
+            } else {
+                target.write(b);
+            }
+        }
+        target.write(delimiter, 0, matched);
+        return false;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int[] failureTable(byte[] pattern) {
+        int[] table = new int[pattern.length];
+        for (int i = 1, k = 0; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = table[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            table[i] = k;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lookup structures compiled from one {@link Configuration}: the device type automaton, one descriptor key
+ * automaton per device type, the device key to standard tag map and the point description patterns. Immutable,
+ * so conversions holding an instance keep a consistent view while a reloaded configuration is compiled next to it.
+ */
+final class CompiledConfiguration {
+
+    private static final int MAX_COMPILED = 4;
+
+    // Keyed by Configuration identity, least recently used first. A reload publishes a new Configuration instance
+    // while conversions started on the old one may still run, so both stay compiled.
+    private static final Map<Configuration, CompiledConfiguration> COMPILED = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Configuration, CompiledConfiguration> eldest) {
+            return size() > MAX_COMPILED;
+        }
+    };
+
+    // Fast path for the common case of every caller using the same configuration.
+    private static volatile CompiledConfiguration last;
+
+    private final Configuration configuration;
+    private final KeywordAutomaton deviceTypes;
+    private final Map<String, KeywordAutomaton> keyAutomatons;
+    private final Set<String> deviceTypesWithDigitKeys;
+    private final Map<String, String> deviceTagMapping;
+    private final PointDescriptionRewriter pointDescriptionRewriter;
+
+    private CompiledConfiguration(Configuration configuration) {
+        this.configuration = configuration;
+        this.deviceTypes = KeywordAutomaton.longestFirst(configuration.getDeviceTypes());
+        // Keys keep their configured order as priority, so the first listed key found in the descriptor wins.
+        Map<String, KeywordAutomaton> automatons = new HashMap<>();
+        configuration.getDeviceKeyMapping().forEach((deviceType, keys) ->
+                automatons.put(deviceType, KeywordAutomaton.inPriorityOrder(keys)));
+        this.keyAutomatons = Map.copyOf(automatons);
+        this.deviceTypesWithDigitKeys = configuration.getDeviceKeyMapping().entrySet().stream()
+                .filter(entry -> entry.getValue().stream().anyMatch(CompiledConfiguration::containsDigit))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+        this.deviceTagMapping = Map.copyOf(configuration.getDeviceTagMapping());
+        this.pointDescriptionRewriter = new PointDescriptionRewriter(configuration);
+    }
+
+    static CompiledConfiguration of(Configuration configuration) {
+        CompiledConfiguration compiled = last;
+        if (compiled == null || compiled.configuration != configuration) {
+            synchronized (COMPILED) {
+                compiled = COMPILED.computeIfAbsent(configuration, CompiledConfiguration::new);
+            }
+            last = compiled;
+        }
+        return compiled;
+    }
+
+    Configuration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return the longest configured device type contained in {@code deviceTag}, or "" if there is none
+     */
+    String deviceType(String deviceTag) {
+        if (deviceTag == null || deviceTag.isEmpty()) return "";
+
+        String deviceType = deviceTypes.findBest(deviceTag);
+        return deviceType != null ? deviceType : "";
+    }
+
+    /**
+     * @return the highest priority descriptor key of {@code deviceType} contained in the description, or ""
+     */
+    String descriptorKey(String deviceType, String pointDescription) {
+        if (pointDescription == null) return "";
+
+        String key = keyAutomatons.getOrDefault(deviceType, KeywordAutomaton.empty()).findBest(pointDescription);
+        return key != null ? key : "";
+    }
+
+    /**
+     * Normalizes a point description for caching its resolution. Descriptions embed the device tag and room
+     * numbers, which differ on every row. When no descriptor key of {@code deviceType} contains a digit, every
+     * digit is replaced by '0'. This keeps the best key unchanged and lets rows for different rooms share one
+     * entry.
+     */
+    String resolutionKey(String deviceType, String pointDescription) {
+        if (deviceTypesWithDigitKeys.contains(deviceType) || !containsDigit(pointDescription)) return pointDescription;
+
+        char[] chars = pointDescription.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= '0' && chars[i] <= '9') chars[i] = '0';
+        }
+        return new String(chars);
+    }
+
+    String standardDeviceTag(String deviceType, String descriptorKey) {
+        return deviceTagMapping.getOrDefault(deviceType + "-" + descriptorKey, "");
+    }
+
+    PointDescriptionRewriter getPointDescriptionRewriter() {
+        return pointDescriptionRewriter;
+    }
+
+    private static boolean containsDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.metrics.ConversionMetrics;
+import com.ontlogieai.reference.ReferenceData;
+import com.ontlogieai.reference.ReferenceIndex;
+import com.ontlogieai.reference.ReferenceSheet;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.List;
+
+/**
+ * Everything that belongs to the conversion of one input sheet: the configuration and reference snapshot it started
+ * with, the column indices resolved against the input sheet and its reference sheet, and the outputs being written (the workbook,
+ * which is null when no xlsx is written, and any text sinks). Keeping this out
+ * of {@link ExcelProcessor} lets one processor run several conversions at the same time.
+ */
+class ConversionContext {
+
+    static final String DEVICE_TAG_HEADER = "Device Tag";
+
+    private final Configuration configuration;
+    private final CompiledConfiguration compiled;
+    private final Workbook outputWorkbook;
+    private final ReferenceSheet referenceSheet;
+    private final int referenceDeviceTagColumnIndex;
+    private final ReferenceIndex referenceIndex;
+    private final RowTemplateCache rowTemplates;
+    // Null unless incremental output is enabled.
+    private final IncrementalOutput incrementalOutput;
+    private final ConversionMetrics metrics;
+    private final List<TextRowSink> textSinks;
+
+    private int inputDeviceTagColumnIndex = -1;
+    private int inputPointDescriptorColumnIndex = -1;
+    private Sheet outputSheet;
+    private int nextRowNum;
+
+    /**
+     * @throws IllegalStateException if the reference workbook has no sheet named {@code referenceSheetName}
+     */
+    ConversionContext(Configuration configuration, ReferenceData referenceData, String referenceSheetName,
+                      Workbook outputWorkbook, IncrementalOutput incrementalOutput, ConversionMetrics metrics,
+                      List<TextRowSink> textSinks) {
+        this.configuration = configuration;
+        this.compiled = CompiledConfiguration.of(configuration);
+        this.outputWorkbook = outputWorkbook;
+        this.referenceSheet = referenceData.getSheet(referenceSheetName);
+        if (referenceSheet == null) {
+            throw new IllegalStateException("Reference workbook has no sheet '" + referenceSheetName + "'");
+        }
+        this.referenceDeviceTagColumnIndex = referenceSheet.getColumnIndex(DEVICE_TAG_HEADER);
+        this.referenceIndex = referenceSheet.getIndex(referenceDeviceTagColumnIndex);
+        this.rowTemplates = RowTemplateCache.of(configuration, referenceIndex);
+        this.incrementalOutput = incrementalOutput;
+        this.metrics = metrics;
+        this.textSinks = textSinks;
+    }
+
+    Configuration getConfiguration() {
+        return configuration;
+    }
+
+    PointDescriptionRewriter getPointDescriptionRewriter() {
+        return compiled.getPointDescriptionRewriter();
+    }
+
+    Workbook getOutputWorkbook() {
+        return outputWorkbook;
+    }
+
+    ReferenceSheet getReferenceSheet() {
+        return referenceSheet;
+    }
+
+    int getReferenceDeviceTagColumnIndex() {
+        return referenceDeviceTagColumnIndex;
+    }
+
+    ReferenceIndex getReferenceIndex() {
+        return referenceIndex;
+    }
+
+    RowTemplateCache getRowTemplates() {
+        return rowTemplates;
+    }
+
+    IncrementalOutput getIncrementalOutput() {
+        return incrementalOutput;
+    }
+
+    ConversionMetrics getMetrics() {
+        return metrics;
+    }
+
+    List<TextRowSink> getTextSinks() {
+        return textSinks;
+    }
+
+    int getInputDeviceTagColumnIndex() {
+        return inputDeviceTagColumnIndex;
+    }
+
+    int getInputPointDescriptorColumnIndex() {
+        return inputPointDescriptorColumnIndex;
+    }
+
+    void setInputColumns(int deviceTagColumnIndex, int pointDescriptorColumnIndex) {
+        this.inputDeviceTagColumnIndex = deviceTagColumnIndex;
+        this.inputPointDescriptorColumnIndex = pointDescriptorColumnIndex;
+    }
+
+    Sheet getOutputSheet() {
+        return outputSheet;
+    }
+
+    void setOutputSheet(Sheet outputSheet) {
+        this.outputSheet = outputSheet;
+        this.nextRowNum = outputSheet.getLastRowNum() + 1;
+    }
+
+    int nextRowNum() {
+        return nextRowNum++;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ontlogieai.transformation;
+
+/**
+ * Follows a running conversion and can stop it. Called on the thread reading the input sheet.
+ */
+public interface ConversionProgress {
+
+    ConversionProgress NONE = new ConversionProgress() {
+    };
+
+    /** The index of the last row of the input sheet, when the file records it. */
+    default void sheetSize(int lastRowNum) {
+    }
+
+    /** Called for every input row before it is transformed. */
+    default void rowRead(int rowNum) {
+    }
+
+    /**
+     * Checked between input rows and before the output is written; once true the conversion stops with a
+     * {@link java.util.concurrent.CancellationException} and its partial output is deleted.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
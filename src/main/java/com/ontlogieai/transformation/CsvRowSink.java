@@ -0,0 +1,60 @@
+package com.ontlogieai.transformation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * RFC 4180 CSV: comma separated, CRLF line ends, fields quoted only when they contain a quote, comma or line break.
+ */
+final class CsvRowSink extends TextRowSink {
+
+    CsvRowSink(Path file, boolean gzip, int columnCount) throws IOException {
+        super(file, gzip, columnCount);
+    }
+
+    @Override
+    protected void writeHeader(String[] headers) throws IOException {
+        writeLine(headers);
+    }
+
+    @Override
+    protected void writeRow(String[] headers, String[] values) throws IOException {
+        writeLine(values);
+    }
+
+    private void writeLine(String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(fields[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String field) throws IOException {
+        if (!needsQuotes(field)) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"' || c == ',' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,53 +1,113 @@
 package com.ontlogieai.transformation;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ontlogieai.config.Configuration;
 import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.metrics.ConversionMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class DeviceTagMapper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceTagMapper.class.getName());
 
-    private Configuration configuration;
+    private static final int RESOLUTION_CACHE_SIZE = 4096;
+    private static final int MAX_STATES = 4;
+
+    // Everything derived from one configuration, keyed by Configuration identity and least recently used first.
+    // Conversions started before a reload keep their own state instead of clearing the reloaded one's cache.
+    private final Map<Configuration, MappingState> states = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Configuration, MappingState> eldest) {
+            return size() > MAX_STATES;
+        }
+    };
+
+    // Fast path for the common case of every conversion using the same configuration.
+    private volatile MappingState last;
 
     public DeviceTagMapper(){
-        configuration = ConfigurationReader.getConfiguration();
+        stateFor(ConfigurationReader.getConfiguration());
     }
 
     public String getStandardDeviceTag(String deviceTag, String pointDescription) {
-        if ("J460-02-2TT-717".equalsIgnoreCase(deviceTag)) {
-            LOGGER.info("Here we need to debug...");
-        }
+        return resolve(ConfigurationReader.getConfiguration(), deviceTag, pointDescription).standardDeviceTag();
+    }
 
-        String keyPrefix = DeviceTagUtility.getDeviceType(deviceTag);
-        String deviceKeyPostfix = getDeviceKey(keyPrefix, pointDescription);
-        String deviceKey = keyPrefix + "-" + deviceKeyPostfix;
+    /**
+     * Maps a DVL row to its descriptor key and standard device tag. Results are cached per device type and point
+     * description with the digits of room numbers and tags masked, since real sheets repeat the same descriptions
+     * for every room.
+     */
+    public TagResolution resolve(Configuration configuration, String deviceTag, String pointDescription) {
+        return resolve(configuration, deviceTag, pointDescription, null);
+    }
+
+    /**
+     * As {@link #resolve(Configuration, String, String)}, counting cache hits and misses in {@code metrics}
+     * unless it is null.
+     */
+    public TagResolution resolve(Configuration configuration, String deviceTag, String pointDescription, ConversionMetrics metrics) {
+        MappingState current = stateFor(configuration);
+        String keyPrefix = current.compiled.deviceType(deviceTag);
+        if (pointDescription == null) {
+            return current.compute(keyPrefix, null);
+        }
 
-        return configuration.getDeviceTagMapping().getOrDefault(deviceKey, "");
+        String cacheKey = current.compiled.resolutionKey(keyPrefix, pointDescription);
+        TagResolution resolution = current.cache.get(keyPrefix, cacheKey);
+        if (resolution == null) {
+            resolution = current.compute(keyPrefix, pointDescription);
+            current.cache.put(keyPrefix, cacheKey, resolution);
+            if (metrics != null) {
+                metrics.resolutionCacheMiss();
+            }
+        } else if (metrics != null) {
+            metrics.resolutionCacheHit();
+        }
+        return resolution;
     }
 
-    private String getDeviceKey(String keyPrefix, String pointDescriptor) {
-        if (pointDescriptor == null) return "";
+    public long getCacheHits() {
+        synchronized (states) {
+            return states.values().stream().mapToLong(state -> state.cache.getHits()).sum();
+        }
+    }
 
-        return Optional.ofNullable(configuration.getDeviceKeyMapping().get(keyPrefix))
-                .flatMap(keys -> findMatchingKey(keys, pointDescriptor))
-                .orElse("");
+    public long getCacheMisses() {
+        synchronized (states) {
+            return states.values().stream().mapToLong(state -> state.cache.getMisses()).sum();
+        }
     }
 
-    private static Optional<String> findMatchingKey(List<String> keys, String descriptor) {
-        for (String key : keys) {
-            if (descriptor.contains(key)) {
-                return Optional.of(key);
+    private MappingState stateFor(Configuration configuration) {
+        MappingState current = last;
+        if (current == null || current.compiled.getConfiguration() != configuration) {
+            synchronized (states) {
+                current = states.computeIfAbsent(configuration, key -> {
+                    LOGGER.debug("Compiling device key lookup for configuration {}", System.identityHashCode(key));
+                    return new MappingState(key);
+                });
             }
+            last = current;
         }
-        return Optional.empty();
+        return current;
     }
 
+    private static final class MappingState {
+
+        private final CompiledConfiguration compiled;
+        private final ResolutionCache cache = new ResolutionCache(RESOLUTION_CACHE_SIZE);
+
+        MappingState(Configuration configuration) {
+            this.compiled = CompiledConfiguration.of(configuration);
+        }
+
+        TagResolution compute(String keyPrefix, String pointDescription) {
+            String deviceKeyPostfix = compiled.descriptorKey(keyPrefix, pointDescription);
+            return new TagResolution(deviceKeyPostfix, compiled.standardDeviceTag(keyPrefix, deviceKeyPostfix));
+        }
+    }
 }
@@ -1,20 +1,14 @@
 package com.ontlogieai.transformation;
 
-import java.util.Set;
+import com.ontlogieai.config.ConfigurationReader;
 
 public class DeviceTagUtility {
 
-    private static final Set<String> DEVICE_TYPES = Set.of(
-            "TT", "FT", "MT", "PT", "ACU", "XC", "TC", "QIT", "UPS",
-            "VAV", "XT", "XA", "FCV", "KS", "XI", "PMP"
-    );
-
+    /**
+     * Classifies a device tag against the device types of the current configuration. Prefer
+     * {@link DeviceTagMapper#resolve}, which uses the configuration the conversion started with.
+     */
     public static String getDeviceType(String deviceTag) {
-        if (deviceTag == null || deviceTag.isEmpty()) return "";
-
-        return DEVICE_TYPES.stream()
-                .filter(deviceTag::contains)
-                .findFirst()
-                .orElse("");
+        return CompiledConfiguration.of(ConfigurationReader.getConfiguration()).deviceType(deviceTag);
     }
 }
@@ -1,22 +1,45 @@
 package com.ontlogieai.transformation;
 
-import com.ontlogieai.Main;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ontlogieai.cache.ConversionFingerprint;
 import com.ontlogieai.config.Configuration;
 import com.ontlogieai.config.ConfigurationReader;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import com.ontlogieai.config.OutputFormat;
+import com.ontlogieai.config.OutputMode;
+import com.ontlogieai.config.SheetMapping;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.input.DvlRowHandler;
+import com.ontlogieai.input.DvlSheetReader;
+import com.ontlogieai.metrics.ConversionMetrics;
+import com.ontlogieai.metrics.ConversionMetrics.Stage;
+import com.ontlogieai.reference.*;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
 
 public class ExcelProcessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ExcelProcessor.class);
 
-    private static final String[] HEADERS = {
+    private static final String METRICS_SUFFIX = ".metrics.json";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    static final String[] HEADERS = {
             "Rev Nr", "Nr", "Outstation", "Device Tag", "Function", "Point Description", "EBI Tag", "JACE Tag",
             "Range (Low) / State 0", "Range (High) / State 1", "State 2", "State 3", "State 4", "State 5", "State 6",
             "State 7", "State 8", "State 9", "State 16", "State 32", "State 64", "State 128", "State 8192",
@@ -25,242 +48,446 @@ public class ExcelProcessor {
             "Reset", "Remarks"
     };
 
-    private final DeviceTagMapper deviceTagMapper;
-    private final Configuration configuration;
+    // Shared by all conversions; keyed by worker count so a reloaded configuration can change it.
+    private static final Map<Integer, ForkJoinPool> TRANSFORM_POOLS = new ConcurrentHashMap<>();
 
-    private int deviceTagColumnIndex = -1;
-    private int pointDescriptorColumnIndex = -1;
+    private final DeviceTagMapper deviceTagMapper;
+    private final RowTransformer rowTransformer;
 
     public ExcelProcessor(){
         deviceTagMapper = new DeviceTagMapper();
-        configuration = ConfigurationReader.getConfiguration();
+        rowTransformer = new RowTransformer(deviceTagMapper);
     }
 
     public void readAndWriteExcelFile(File inputFile, File outputFile) throws IOException {
+        readAndWriteExcelFile(inputFile, outputFile, ConfigurationReader.getConfiguration());
+    }
+
+    /**
+     * Converts {@code inputFile} with {@code configuration} throughout, even if the configuration is reloaded
+     * while the conversion runs.
+     */
+    public void readAndWriteExcelFile(File inputFile, File outputFile, Configuration configuration) throws IOException {
+        readAndWriteExcelFile(inputFile, outputFile, configuration, ConversionProgress.NONE);
+    }
+
+    /**
+     * Like {@link #readAndWriteExcelFile(File, File, Configuration)}, reporting every input row to {@code progress}.
+     *
+     * @throws CancellationException if {@code progress} cancelled the conversion; the output files are deleted, as
+     *                               after any other failure
+     */
+    public void readAndWriteExcelFile(File inputFile, File outputFile, Configuration configuration,
+                                      ConversionProgress progress) throws IOException {
         LOGGER.info("Reading Excel file: {}", inputFile.getName());
+        ConversionMetrics metrics = new ConversionMetrics(inputFile.getName());
+        File written = null;
 
-        try (Workbook workbook = WorkbookFactory.createWorkbook(inputFile);
-             Workbook newWorkbook = new XSSFWorkbook();
-             FileOutputStream fos = new FileOutputStream(outputFile);
-             InputStream refFis = getReferenceFileStream();
-             Workbook refWorkbook = new XSSFWorkbook(refFis)) {
+        try {
+            long start = System.nanoTime();
+            ReferenceData referenceData = ReferenceDataCache.get();
+            metrics.addStageNanos(Stage.REFERENCE_LOAD, System.nanoTime() - start);
+            boolean xlsx = configuration.getOutputFormats().contains(OutputFormat.XLSX);
+            List<SheetMapping> mappings = configuration.getSheetMappings();
+            boolean incremental = xlsx && configuration.isIncrementalOutput();
+            if (incremental && mappings.size() > 1) {
+                LOGGER.info("Incremental output needs a single sheet mapping; converting {} in full", inputFile.getName());
+                incremental = false;
+            }
+            // Read before the output stream truncates the previous output.
+            IncrementalOutput incrementalOutput = incremental
+                    ? IncrementalOutput.load(outputFile, ConversionFingerprint.of(configuration, referenceData.getChecksum()), mappings.get(0).getOutputSheet())
+                    : null;
+            if (incrementalOutput == null) {
+                Files.deleteIfExists(IncrementalOutput.manifestFile(outputFile).toPath());
+            }
 
-            copyReferenceSheets(refWorkbook, newWorkbook);
-            processFloormanagerSheet(workbook, newWorkbook, refWorkbook);
-            newWorkbook.write(fos);
+            List<TextRowSink> textSinks = new ArrayList<>();
+            // Without xlsx in outputFormats no workbook is built; try-with-resources skips the null resources.
+            try (Workbook newWorkbook = xlsx ? WorkbookFactory.createOutputWorkbook(configuration) : null;
+                 FileOutputStream fos = xlsx ? new FileOutputStream(outputFile) : null) {
+                try {
+                    for (OutputFormat format : configuration.getOutputFormats()) {
+                        if (format != OutputFormat.XLSX) {
+                            textSinks.add(TextRowSink.open(format, outputFile(outputFile, format, configuration.isGzipTextOutput()),
+                                    configuration.isGzipTextOutput(), HEADERS.length));
+                        }
+                    }
+                    if (xlsx) {
+                        start = System.nanoTime();
+                        copyReferenceSheets(referenceData, newWorkbook, mappings);
+                        metrics.addStageNanos(Stage.WRITE, System.nanoTime() - start);
+                    }
+                    if (mappings.size() == 1) {
+                        SheetMapping mapping = mappings.get(0);
+                        ConversionContext context = new ConversionContext(configuration, referenceData,
+                                mapping.getReferenceSheet(), newWorkbook, incrementalOutput, metrics, textSinks);
+                        DvlSheetReader reader = DvlSheetReader.forFile(inputFile, configuration.isStreamingInput(), configuration.getRequiredHeaders());
+                        processSheet(inputFile, reader, mapping, context,
+                                () -> startOutputSheet(context, mapping.getOutputSheet(), true), false, progress);
+                    } else {
+                        processSheets(inputFile, configuration, referenceData, newWorkbook, metrics, textSinks, progress);
+                    }
+                    checkCancelled(progress, inputFile);
+                    start = System.nanoTime();
+                    for (TextRowSink sink : textSinks) {
+                        sink.close();
+                    }
+                    if (xlsx) {
+                        newWorkbook.write(fos);
+                    }
+                    metrics.addStageNanos(Stage.WRITE, System.nanoTime() - start);
+                    LOGGER.debug("Resolution cache: {} hits, {} misses", deviceTagMapper.getCacheHits(), deviceTagMapper.getCacheMisses());
+                } finally {
+                    // Already closed after a successful conversion; releases the files after a failure.
+                    closeQuietly(textSinks);
+                    WorkbookFactory.dispose(newWorkbook);
+                }
+            }
 
+            if (incrementalOutput != null) {
+                incrementalOutput.writeManifest(outputFile);
+            }
+            written = outputFile(outputFile, configuration.getOutputFormats().get(0), configuration.isGzipTextOutput());
+        } catch (CancellationException e) {
+            LOGGER.info("Conversion of {} cancelled", inputFile.getName());
+            deleteOutputs(outputFile, configuration);
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Error processing Excel file", e);
+            deleteOutputs(outputFile, configuration);
             throw e;
+        } finally {
+            metrics.finish(written);
+        }
+        if (configuration.isMetricsSummary()) {
+            writeMetricsSummary(metrics, outputFile(outputFile, configuration.getOutputFormats().get(0),
+                    configuration.isGzipTextOutput()));
         }
     }
 
-    static class WorkbookFactory {
-        static Workbook createWorkbook(File file) throws IOException {
-            try (FileInputStream fis = new FileInputStream(file)) {
-                return file.getName().endsWith(".xlsx") ? new XSSFWorkbook(fis) : new HSSFWorkbook(fis);
+    /** Removes the partially written outputs of a failed or cancelled conversion. */
+    private static void deleteOutputs(File outputFile, Configuration configuration) {
+        for (OutputFormat format : configuration.getOutputFormats()) {
+            File file = outputFile(outputFile, format, configuration.isGzipTextOutput());
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete incomplete output {}", file, e);
             }
         }
     }
 
-    private static Sheet getOrCreateSheet(Workbook workbook, String sheetName) {
-        Sheet sheet = workbook.getSheet(sheetName);
-        return (sheet != null) ? sheet : workbook.createSheet(sheetName);
+    /**
+     * The file {@code format} is written to for the xlsx output {@code xlsxOutput}: the output itself, or for a
+     * text format the same base name with the format's extension (plus {@code .gz} when compressed).
+     */
+    public static File outputFile(File xlsxOutput, OutputFormat format, boolean gzip) {
+        if (format == OutputFormat.XLSX) {
+            return xlsxOutput;
+        }
+        String baseName = xlsxOutput.getName().replaceFirst("\\.xlsx?$", "");
+        return new File(xlsxOutput.getParentFile(), baseName + format.getExtension() + (gzip ? ".gz" : ""));
     }
 
-    private  void processFloormanagerSheet(Workbook workbook, Workbook newWorkbook, Workbook refWorkbook) {
-        Sheet sheet = workbook.getSheet("Floormanager");
-        if (sheet == null) {
-            LOGGER.warn("Sheet 'Floormanager' not found.");
-            return;
+    private static void closeQuietly(List<TextRowSink> textSinks) {
+        for (TextRowSink sink : textSinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close text output", e);
+            }
         }
+    }
 
-        Sheet newSheet = getOrCreateSheet(newWorkbook, "J270-06-demo");
-        addHeaderRow(newSheet);
+    /**
+     * Writes the metrics of a conversion next to its first output as {@code <output>.metrics.json}. A summary that
+     * cannot be written is logged, it does not fail the conversion.
+     */
+    static void writeMetricsSummary(ConversionMetrics metrics, File outputFile) {
+        try {
+            OBJECT_MAPPER.writeValue(new File(outputFile.getPath() + METRICS_SUFFIX), metrics.toJson());
+        } catch (IOException e) {
+            LOGGER.warn("Could not write metrics summary for {}", outputFile.getName(), e);
+        }
+    }
 
-        deviceTagColumnIndex = getColumnIndex(sheet, "Device Tag");
-        pointDescriptorColumnIndex = getColumnIndex(sheet, "Point Descriptor");
+    static class WorkbookFactory {
+        static Workbook createOutputWorkbook(Configuration configuration) {
+            if (configuration.getOutputMode() == OutputMode.IN_MEMORY) {
+                return new XSSFWorkbook();
+            }
+            int compressionLevel = configuration.getXlsxCompressionLevel();
+            int compressionWorkers = configuration.getEffectiveXlsxCompressionWorkers();
+            SXSSFWorkbook workbook = compressionLevel == Deflater.DEFAULT_COMPRESSION && compressionWorkers <= 1
+                    ? new SXSSFWorkbook(configuration.getStreamingRowWindow())
+                    : new ParallelDeflateWorkbook(configuration.getStreamingRowWindow(), compressionLevel, compressionWorkers);
+            workbook.setCompressTempFiles(configuration.isCompressTempFiles());
+            return workbook;
+        }
 
-        if(deviceTagColumnIndex != -1 && pointDescriptorColumnIndex != -1){
-            for (Row row : sheet) {
-                processRow(row, newSheet, refWorkbook, deviceTagColumnIndex, pointDescriptorColumnIndex);
+        static void dispose(Workbook workbook) {
+            if (workbook instanceof SXSSFWorkbook streamingWorkbook && !streamingWorkbook.dispose()) {
+                LOGGER.warn("Could not delete all temporary files of the streaming workbook");
             }
-        }else{
-            LOGGER.info("Excel can not be processed cause Device Tag and Point Descriptor columns not found in the excel");
         }
+    }
 
+    private static Sheet getOrCreateSheet(Workbook workbook, String sheetName) {
+        Sheet sheet = workbook.getSheet(sheetName);
+        return (sheet != null) ? sheet : workbook.createSheet(sheetName);
     }
 
-    private  void processRow(Row row, Sheet newSheet, Workbook refWorkbook, int deviceTagColumnIndex, int pointDescriptorColumnIndex) {
-        if (isRowEmpty(row)) {
-            LOGGER.debug("Skipping empty row");
-            return;
+    private static void checkCancelled(ConversionProgress progress, File inputFile) {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Conversion of " + inputFile.getName() + " cancelled");
         }
+    }
 
-        String deviceTag = getCellValue(row, deviceTagColumnIndex);
-        String pointDescription = getCellValue(row, pointDescriptorColumnIndex);
-        String standardDeviceTag = deviceTagMapper.getStandardDeviceTag(deviceTag, pointDescription);
-
-        LOGGER.debug("Processing row - Device Tag: {}, Point Description: {}, Standard Device Tag: {}",
-                deviceTag, pointDescription, standardDeviceTag);
-
-        if (standardDeviceTag != null && !standardDeviceTag.equalsIgnoreCase("Device Tag") && !standardDeviceTag.isEmpty()) {
-            copyRowsFromRefSheet(newSheet, refWorkbook, standardDeviceTag, deviceTag, pointDescription);
+    /**
+     * Converts one mapped sheet, streaming its rows through the transform pool into the outputs. {@code startOutput}
+     * creates the output sheet, when the input sheet is found or, with {@code startOnHeaderRow}, once its header row
+     * is, so that a sheet without the required headers gets no output sheet.
+     */
+    private void processSheet(File inputFile, DvlSheetReader reader, SheetMapping mapping, ConversionContext context,
+                              Runnable startOutput, boolean startOnHeaderRow, ConversionProgress progress) throws IOException {
+        Configuration configuration = context.getConfiguration();
+        OrderedRowPipeline pipeline = new OrderedRowPipeline(context, rowTransformer,
+                transformPool(configuration.getEffectiveTransformWorkers()), configuration.getTransformWindow());
+        ConversionMetrics metrics = context.getMetrics();
+        SheetRead read;
+        try {
+            read = readSheet(inputFile, reader, mapping, context, startOutput, startOnHeaderRow, row -> {
+                metrics.rowRead();
+                pipeline.submit(row);
+            }, pipeline::finish, progress);
+        } catch (IOException | RuntimeException e) {
+            pipeline.cancel();
+            throw e;
         }
+        metrics.addStageNanos(Stage.HEADER_DETECTION, read.headerNanos());
+        metrics.addStageNanos(Stage.INPUT_PARSE, read.parseNanos());
     }
 
-    private boolean isRowEmpty(Row row) {
-        if (row == null) return true;
-        for (Cell cell : row) {
-            if (cell.getCellType() != CellType.BLANK && !cell.toString().trim().isEmpty()) {
-                return false;
-            }
+    /**
+     * Converts several mapped sheets one after the other in mapping order, each streamed through its own bounded
+     * transform pipeline like a single mapping, so no sheet is held in memory as a whole. Without streaming input
+     * the input workbook is loaded once and shared by the sheets.
+     */
+    private void processSheets(File inputFile, Configuration configuration, ReferenceData referenceData, Workbook workbook,
+                               ConversionMetrics metrics, List<TextRowSink> textSinks, ConversionProgress progress) throws IOException {
+        if (configuration.isStreamingInput()) {
+            processSheets(inputFile, configuration, referenceData, workbook, metrics, textSinks, progress,
+                    DvlSheetReader.forFile(inputFile, true, configuration.getRequiredHeaders()));
+            return;
+        }
+        long start = System.nanoTime();
+        try (Workbook input = DvlSheetReader.loadWorkbook(inputFile)) {
+            metrics.addStageNanos(Stage.INPUT_PARSE, System.nanoTime() - start);
+            processSheets(inputFile, configuration, referenceData, workbook, metrics, textSinks, progress,
+                    DvlSheetReader.forWorkbook(input, configuration.getRequiredHeaders()));
         }
-        return true;
     }
 
-    private void copyRowsFromRefSheet(Sheet newSheet, Workbook refWorkbook, String standardDeviceTag, String deviceTag, String pointDescription) {
-        try {
-            List<Row> matchedRows = getMatchingRows(refWorkbook, standardDeviceTag);
-            copyRows(newSheet, matchedRows, standardDeviceTag, deviceTag, pointDescription);
-        } catch (Exception e) {
-            LOGGER.error("Error processing reference workbook", e);
+    private void processSheets(File inputFile, Configuration configuration, ReferenceData referenceData, Workbook workbook,
+                               ConversionMetrics metrics, List<TextRowSink> textSinks, ConversionProgress progress,
+                               DvlSheetReader reader) throws IOException {
+        List<SheetMapping> mappings = configuration.getSheetMappings();
+        CombinedProgress combinedProgress = new CombinedProgress(progress, mappings.size());
+        // The text outputs hold the rows of every sheet under a single header line.
+        AtomicBoolean textHeaderWritten = new AtomicBoolean();
+        for (int i = 0; i < mappings.size(); i++) {
+            SheetMapping mapping = mappings.get(i);
+            ConversionContext context = new ConversionContext(configuration, referenceData, mapping.getReferenceSheet(),
+                    workbook, null, metrics, textSinks);
+            processSheet(inputFile, reader, mapping, context,
+                    () -> startOutputSheet(context, mapping.getOutputSheet(), !textHeaderWritten.getAndSet(true)),
+                    true, combinedProgress.forSheet(i));
         }
     }
 
-    private  List<Row> getMatchingRows(Workbook refWorkbook, String standardDeviceTag) {
-        List<Row> matchingRows = new ArrayList<>();
-        Sheet sheet = refWorkbook.getSheetAt(1);
-        //int deviceTagColumnIndex = getColumnIndex(sheet, "Device Tag");
-        if (deviceTagColumnIndex == -1) return matchingRows;
+    /**
+     * Reads the input sheet of {@code mapping} with {@code reader}, handing every row to {@code rowSink}, and runs
+     * {@code finish} once the sheet has been read.
+     */
+    private static SheetRead readSheet(File inputFile, DvlSheetReader reader, SheetMapping mapping, ConversionContext context,
+                                       Runnable startOutput, boolean startOnHeaderRow, Consumer<DvlRow> rowSink,
+                                       Runnable finish, ConversionProgress progress) throws IOException {
+        String sheetName = mapping.getInputSheet();
+        if (context.getReferenceDeviceTagColumnIndex() == -1) {
+            LOGGER.error("Reference sheet '{}' has no Device Tag column", context.getReferenceSheet().getSheetName());
+        }
 
-        for (Row row : sheet) {
-            String cellValue = getCellValue(row, deviceTagColumnIndex);
-            if (cellValue.equalsIgnoreCase(standardDeviceTag)) {
-                matchingRows.add(row);
-            }
+        long start = System.nanoTime();
+        SheetRowHandler handler = new SheetRowHandler(context, startOutput, startOnHeaderRow, rowSink, start, inputFile, progress);
+        DvlSheetReader.Result result = reader.read(inputFile, sheetName, handler);
+        long finishStart = System.nanoTime();
+        finish.run();
+        long end = System.nanoTime();
+        handler.rowNanos += end - finishStart;
+
+        if (result == DvlSheetReader.Result.SHEET_NOT_FOUND) {
+            LOGGER.warn("Sheet '{}' not found in {}.", sheetName, inputFile.getName());
+        } else if (result == DvlSheetReader.Result.HEADERS_NOT_FOUND) {
+            LOGGER.info("Sheet '{}' of {} can not be processed cause Device Tag and Point Descriptor columns not found",
+                    sheetName, inputFile.getName());
+        } else {
+            LOGGER.info("Sheet '{}' of {}: {} rows in {} ms", sheetName, inputFile.getName(), handler.rows, (end - start) / 1_000_000);
         }
-        return matchingRows;
+        // Whatever the reader thread did not spend detecting the header or handing rows on.
+        return new SheetRead(result, handler.headerNanos, end - start - handler.headerNanos - handler.rowNanos);
     }
 
-    private void copyRows(Sheet newSheet, List<Row> sourceRows, String standardDeviceTag, String deviceTag, String pointDescription) {
-        int newRowNum = newSheet.getLastRowNum() + 1;
-        for (Row sourceRow : sourceRows) {
-            Row newRow = newSheet.createRow(newRowNum++);
-            copyRowData(sourceRow, newRow, standardDeviceTag, deviceTag, pointDescription);
-        }
+    /**
+     * Returns the pool transforming rows, or null to transform them inline when only one worker is configured.
+     */
+    private static ExecutorService transformPool(int workers) {
+        return workers <= 1 ? null : TRANSFORM_POOLS.computeIfAbsent(workers, ForkJoinPool::new);
     }
 
-    private  void copyRowData(Row sourceRow, Row newRow, String standardDeviceTag, String deviceTag, String pointDescription) {
-        for (Cell sourceCell : sourceRow) {
-            Cell newCell = newRow.createCell(sourceCell.getColumnIndex());
-
-            switch (sourceCell.getCellType()) {
-                case STRING:
-                    if(sourceCell.getColumnIndex() == configuration.getDeviceTagIndexInOutputFile()){
-                        newCell.setCellValue(sourceCell.getStringCellValue().replace(standardDeviceTag, deviceTag));
-                    }else if(sourceCell.getColumnIndex() == configuration.getPointDescriptionIndexInOutputFile()){
-                        String regexPointDescriptor = getRegexPointDescriptor(pointDescription, deviceTag);
-                        String replacedString = replaceFirstPart(regexPointDescriptor,pointDescription, sourceCell.getStringCellValue());
-                        newCell.setCellValue(replacedString);
-                    }else {
-                        newCell.setCellValue(sourceCell.getStringCellValue().replace(standardDeviceTag, deviceTag));
-                    }
-                    break;
-                case NUMERIC:
-                    newCell.setCellValue(sourceCell.getNumericCellValue());
-                    break;
-                case BOOLEAN:
-                    newCell.setCellValue(sourceCell.getBooleanCellValue());
-                    break;
-                case FORMULA:
-                    newCell.setCellFormula(sourceCell.getCellFormula());
-                    break;
-                case BLANK:
-                    newCell.setCellType(CellType.BLANK);
-                    break;
-                default:
-                    break;
+    /**
+     * Creates the generated sheet with its header row, and writes the header line of the text outputs when
+     * {@code textHeader} is set.
+     */
+    private static void startOutputSheet(ConversionContext context, String outputSheetName, boolean textHeader) {
+        if (context.getOutputWorkbook() != null) {
+            Sheet newSheet = getOrCreateSheet(context.getOutputWorkbook(), outputSheetName);
+            addHeaderRow(newSheet);
+            context.setOutputSheet(newSheet);
+        }
+        if (!textHeader) {
+            return;
+        }
+        try {
+            for (TextRowSink sink : context.getTextSinks()) {
+                sink.header(HEADERS);
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    public static String replaceFirstPart(String pointDescriptorRegexValue, String source, String target) {
-        // Build a regex pattern using the dynamic pointDescriptorRegexValue
-        String regex = "^(.*? - " + pointDescriptorRegexValue + ")";
-
-        // Extracting the matching prefix from source
-        String newPrefix = source.replaceAll(regex, "$1");
-
-        // Replacing the first part in target string
-        return target.replaceFirst(regex, newPrefix);
+    private record SheetRead(DvlSheetReader.Result result, long headerNanos, long parseNanos) {
     }
 
+    /**
+     * Reports the sheets of a conversion as one input to the conversion's progress: sizes and positions are summed
+     * over the sheets.
+     */
+    private static final class CombinedProgress {
 
-    private String getRegexPointDescriptor(String pointDescription, String deviceTag) {
-        String regex = "";
-        String deviceType = DeviceTagUtility.getDeviceType(deviceTag);
-        List<String> pointDescriptorsList = configuration.getDeviceKeyMapping().get(deviceType);
-        if(null != pointDescriptorsList && !pointDescriptorsList.isEmpty()){
-            regex = pointDescriptorsList.stream()
-                    .filter(pointDescription::contains)
-                    .findFirst()
-                    .orElse("");
+        private final ConversionProgress progress;
+        private final int[] lastRowNums;
+        private final int[] rowNums;
+
+        CombinedProgress(ConversionProgress progress, int sheets) {
+            this.progress = progress;
+            this.lastRowNums = new int[sheets];
+            this.rowNums = new int[sheets];
         }
-        return regex;
-    }
 
-    private String getCellValue(Row row, int columnIndex) {
-        Cell cell = row.getCell(columnIndex);
-        return (cell != null) ? cell.getStringCellValue() : "";
-    }
+        ConversionProgress forSheet(int sheet) {
+            return new ConversionProgress() {
+                @Override
+                public void sheetSize(int lastRowNum) {
+                    synchronized (CombinedProgress.this) {
+                        lastRowNums[sheet] = lastRowNum;
+                        progress.sheetSize(Arrays.stream(lastRowNums).sum());
+                    }
+                }
 
-    private int getColumnIndex(Sheet sheet, String columnName) {
-        Row headerRow = getHeaderRow(sheet, configuration.getRequiredHeaders());
-        if(null != headerRow){
-            for (Cell cell : headerRow) {
-                if (cell.getStringCellValue().equalsIgnoreCase(columnName)) {
-                    return cell.getColumnIndex();
+                @Override
+                public void rowRead(int rowNum) {
+                    synchronized (CombinedProgress.this) {
+                        rowNums[sheet] = rowNum;
+                        progress.rowRead(Arrays.stream(rowNums).sum());
+                    }
                 }
-            }
+
+                @Override
+                public boolean isCancelled() {
+                    return progress.isCancelled();
+                }
+            };
         }
-        return -1;
     }
 
-    private Row getHeaderRow(Sheet sheet, List<String> requiredHeaders) {
-        Row headerRow = sheet.getRow(0);
+    private static class SheetRowHandler implements DvlRowHandler {
+
+        private final ConversionContext context;
+        private final Runnable startOutput;
+        private final boolean startOnHeaderRow;
+        private final Consumer<DvlRow> rowSink;
+        private final long startNanos;
+        private final File inputFile;
+        private final ConversionProgress progress;
+        // Time from opening the input until the header row was found, and time spent handing rows on.
+        private long headerNanos;
+        private long rowNanos;
+        private int rows;
+
+        SheetRowHandler(ConversionContext context, Runnable startOutput, boolean startOnHeaderRow, Consumer<DvlRow> rowSink,
+                        long startNanos, File inputFile, ConversionProgress progress) {
+            this.context = context;
+            this.startOutput = startOutput;
+            this.startOnHeaderRow = startOnHeaderRow;
+            this.rowSink = rowSink;
+            this.startNanos = startNanos;
+            this.inputFile = inputFile;
+            this.progress = progress;
+        }
 
-        if (isRowEmpty(headerRow) || containsRequiredHeaders(headerRow, requiredHeaders)) {
-            LOGGER.debug("Skipping header row at index {} cause it's empty or missing required headers", 0);
-            LOGGER.debug("Trying to find headers at row index {}", 1);
+        @Override
+        public void startSheet() {
+            if (!startOnHeaderRow) {
+                startOutput.run();
+            }
+        }
+
+        @Override
+        public void sheetSize(int lastRowNum) {
+            progress.sheetSize(lastRowNum);
+        }
 
-            headerRow = sheet.getRow(1);
-            if (isRowEmpty(headerRow) || containsRequiredHeaders(headerRow, requiredHeaders)) {
-                LOGGER.error("Did not find the required headers in the Excel file");
-                return null;
+        @Override
+        public void headerRow(int deviceTagColumnIndex, int pointDescriptorColumnIndex) {
+            headerNanos = System.nanoTime() - startNanos;
+            context.setInputColumns(deviceTagColumnIndex, pointDescriptorColumnIndex);
+            if (startOnHeaderRow) {
+                startOutput.run();
             }
         }
-        return headerRow;
-    }
 
-    private boolean containsRequiredHeaders(Row row, List<String> requiredHeaders) {
-        Set<String> headersInRow = new HashSet<>();
-        for (Cell cell : row) {
-            headersInRow.add(cell.toString().trim());
+        @Override
+        public void row(DvlRow row) {
+            checkCancelled(progress, inputFile);
+            progress.rowRead(row.rowNum());
+            long start = System.nanoTime();
+            rows++;
+            rowSink.accept(row);
+            rowNanos += System.nanoTime() - start;
         }
-        return !headersInRow.containsAll(requiredHeaders);
     }
 
     public static void addHeaderRow(Sheet sheet) {
         Row headerRow = sheet.createRow(0);
         CellStyle headerStyle = createHeaderStyle(sheet.getWorkbook());
+        // Columns are sized to the header only; tracking stops before data rows are added, as measuring every
+        // flushed cell would cost more than building the sheet.
+        SXSSFSheet streamingSheet = sheet instanceof SXSSFSheet streaming ? streaming : null;
 
         for (int i = 0; i < HEADERS.length; i++) {
             Cell cell = headerRow.createCell(i);
             cell.setCellValue(HEADERS[i]);
             cell.setCellStyle(headerStyle);
+            if (streamingSheet != null) {
+                streamingSheet.trackColumnForAutoSizing(i);
+            }
             sheet.autoSizeColumn(i);
         }
+        if (streamingSheet != null) {
+            streamingSheet.untrackAllColumnsForAutoSizing();
+        }
     }
 
     private static CellStyle createHeaderStyle(Workbook workbook) {
@@ -293,47 +520,34 @@ public class ExcelProcessor {
         }
     }*/
 
-    private static InputStream getReferenceFileStream() throws IOException {
-        InputStream refFis = Main.class.getClassLoader().getResourceAsStream("J270-06-Alarm-And-Parameter-list.xlsx");
-        if (refFis == null) {
-            throw new IOException("Reference Excel file not found in resources.");
-        }
-        return refFis;
-    }
-    private static void copyReferenceSheets(Workbook refWorkbook, Workbook newWorkbook) {
-        for (Sheet refSheet : refWorkbook) {
-            if (!"J270-06".equalsIgnoreCase(refSheet.getSheetName())) {
-                Sheet newSheet = newWorkbook.createSheet(refSheet.getSheetName());
-                copySheet(refSheet, newSheet);
+    /**
+     * Copies the reference sheets into the output workbook, except those the generated sheets replace.
+     *
+     * @throws IllegalStateException if a generated sheet has the name of a copied reference sheet
+     */
+    static void copyReferenceSheets(ReferenceData referenceData, Workbook newWorkbook, List<SheetMapping> mappings) {
+        List<ReferenceSheet> copied = referenceData.getSheets().stream()
+                .filter(refSheet -> mappings.stream().noneMatch(mapping -> mapping.getReferenceSheet().equalsIgnoreCase(refSheet.getSheetName())))
+                .toList();
+        for (SheetMapping mapping : mappings) {
+            for (ReferenceSheet refSheet : copied) {
+                if (mapping.getOutputSheet().equalsIgnoreCase(refSheet.getSheetName())) {
+                    throw new IllegalStateException("Output sheet '" + mapping.getOutputSheet()
+                            + "' would overwrite the reference sheet of the same name copied into the output");
+                }
             }
         }
-    }
-
-    private static void copySheet(Sheet sourceSheet, Sheet targetSheet) {
-        for (Row sourceRow : sourceSheet) {
-            Row targetRow = targetSheet.createRow(sourceRow.getRowNum());
-            copyRow(sourceRow, targetRow);
-        }
-    }
-
-    private static void copyRow(Row sourceRow, Row targetRow) {
-        for (int i = 0; i < sourceRow.getLastCellNum(); i++) {
-            Cell sourceCell = sourceRow.getCell(i);
-            if (sourceCell != null) {
-                Cell targetCell = targetRow.createCell(i);
-                copyCell(sourceCell, targetCell);
-            }
+        for (ReferenceSheet refSheet : copied) {
+            Sheet newSheet = newWorkbook.createSheet(refSheet.getSheetName());
+            copySheet(refSheet, newSheet);
         }
     }
 
-    private static void copyCell(Cell sourceCell, Cell targetCell) {
-        switch (sourceCell.getCellType()) {
-            case STRING -> targetCell.setCellValue(sourceCell.getStringCellValue());
-            case NUMERIC -> targetCell.setCellValue(sourceCell.getNumericCellValue());
-            case BOOLEAN -> targetCell.setCellValue(sourceCell.getBooleanCellValue());
-            case FORMULA -> targetCell.setCellFormula(sourceCell.getCellFormula());
-            case BLANK -> targetCell.setBlank();
-            default -> {
+    private static void copySheet(ReferenceSheet sourceSheet, Sheet targetSheet) {
+        for (ReferenceRow sourceRow : sourceSheet.getRows()) {
+            Row targetRow = targetSheet.createRow(sourceRow.rowNum());
+            for (ReferenceCell sourceCell : sourceRow.cells()) {
+                sourceCell.copyTo(targetRow.createCell(sourceCell.columnIndex()));
             }
         }
     }
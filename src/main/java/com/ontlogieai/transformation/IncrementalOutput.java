@@ -0,0 +1,143 @@
+package com.ontlogieai.transformation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ontlogieai.cache.ConversionFingerprint;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.reference.ReferenceRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Row-level reuse of a previous conversion. Next to every output a manifest records, per DVL row, its device tag,
+ * point descriptor, standard tag and the output rows generated for it. On the next conversion, DVL rows whose
+ * tag and descriptor appear in the manifest are emitted from the previous output instead of being recomputed;
+ * added and changed rows go through the normal transformation and removed rows are simply not emitted.
+ * <p>
+ * The previous output is only trusted if the manifest was written under the same {@link ConversionFingerprint}
+ * and the output file still has the checksum recorded in it.
+ */
+class IncrementalOutput {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalOutput.class);
+
+    private static final String MANIFEST_SUFFIX = ".manifest.json";
+    private static final int MANIFEST_VERSION = 1;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String fingerprint;
+    private final String sheetName;
+    private final Map<RowKey, PreviousRows> previousRows;
+    private final List<ManifestRow> manifestRows = new ArrayList<>();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger recomputed = new AtomicInteger();
+
+    record Manifest(int version, String fingerprint, String outputSha256, String sheet, List<ManifestRow> rows) {
+    }
+
+    record ManifestRow(String deviceTag, String pointDescription, String standardDeviceTag, int firstOutputRow,
+                       int outputRowCount) {
+    }
+
+    private record RowKey(String deviceTag, String pointDescription) {
+    }
+
+    private record PreviousRows(String standardDeviceTag, List<OutputRow> outputRows) {
+    }
+
+    private IncrementalOutput(String fingerprint, String sheetName, Map<RowKey, PreviousRows> previousRows) {
+        this.fingerprint = fingerprint;
+        this.sheetName = sheetName;
+        this.previousRows = previousRows;
+    }
+
+    /**
+     * Loads what can be reused from {@code outputFile} and its manifest. Must run before the output is overwritten.
+     */
+    static IncrementalOutput load(File outputFile, String fingerprint, String sheetName) {
+        File manifestFile = manifestFile(outputFile);
+        if (!manifestFile.isFile() || !outputFile.isFile()) {
+            return new IncrementalOutput(fingerprint, sheetName, Map.of());
+        }
+        try {
+            Manifest manifest = OBJECT_MAPPER.readValue(manifestFile, Manifest.class);
+            if (manifest.version() != MANIFEST_VERSION || !fingerprint.equals(manifest.fingerprint())) {
+                LOGGER.info("Configuration, reference workbook or converter changed since {} was written, rebuilding all rows", outputFile.getName());
+                return new IncrementalOutput(fingerprint, sheetName, Map.of());
+            }
+            if (!sha256(outputFile).equals(manifest.outputSha256())) {
+                LOGGER.info("{} was modified after its manifest was written, rebuilding all rows", outputFile.getName());
+                return new IncrementalOutput(fingerprint, sheetName, Map.of());
+            }
+
+            Map<Integer, ReferenceRow> sheetRows = PreviousOutputReader.readSheet(outputFile, manifest.sheet());
+            Map<RowKey, PreviousRows> previous = new HashMap<>();
+            for (ManifestRow row : manifest.rows()) {
+                List<OutputRow> outputRows = new ArrayList<>(row.outputRowCount());
+                for (int i = 0; i < row.outputRowCount(); i++) {
+                    ReferenceRow sheetRow = sheetRows.get(row.firstOutputRow() + i);
+                    outputRows.add(RowTemplate.verbatim(sheetRow != null ? sheetRow : new ReferenceRow(row.firstOutputRow() + i, List.of())).constant());
+                }
+                previous.putIfAbsent(new RowKey(row.deviceTag(), row.pointDescription()),
+                        new PreviousRows(row.standardDeviceTag(), List.copyOf(outputRows)));
+            }
+            return new IncrementalOutput(fingerprint, sheetName, previous);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not reuse {}, rebuilding all rows", outputFile.getName(), e);
+            return new IncrementalOutput(fingerprint, sheetName, Map.of());
+        }
+    }
+
+    /**
+     * Returns the rows generated for the same device tag and point descriptor last time, or null to recompute.
+     * The output of a DVL row depends on nothing else, so any previous occurrence can be reused.
+     */
+    TransformedRow reuse(DvlRow row) {
+        PreviousRows previous = previousRows.get(new RowKey(row.deviceTag(), row.pointDescription()));
+        if (previous == null) {
+            recomputed.incrementAndGet();
+            return null;
+        }
+        reused.incrementAndGet();
+        return new TransformedRow(row, previous.standardDeviceTag(), previous.outputRows());
+    }
+
+    /** Called by the writer, in sheet order, for every DVL row written. */
+    void record(TransformedRow row, int firstOutputRow) {
+        manifestRows.add(new ManifestRow(row.row().deviceTag(), row.row().pointDescription(), row.standardDeviceTag(),
+                firstOutputRow, row.outputRows().size()));
+    }
+
+    void writeManifest(File outputFile) throws IOException {
+        Manifest manifest = new Manifest(MANIFEST_VERSION, fingerprint, sha256(outputFile), sheetName, manifestRows);
+        OBJECT_MAPPER.writeValue(manifestFile(outputFile), manifest);
+        LOGGER.info("Incremental conversion of {}: {} rows reused, {} rows recomputed", outputFile.getName(),
+                reused.get(), recomputed.get());
+    }
+
+    static File manifestFile(File outputFile) {
+        return new File(outputFile.getPath() + MANIFEST_SUFFIX);
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest = ConversionFingerprint.sha256();
+        try (InputStream in = new DigestInputStream(new BufferedInputStream(new FileInputStream(file)), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
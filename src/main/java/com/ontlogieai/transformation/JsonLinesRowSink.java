@@ -0,0 +1,45 @@
+package com.ontlogieai.transformation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * JSON Lines: one object per generated row, keyed by the APL column headers, in column order.
+ */
+final class JsonLinesRowSink extends TextRowSink {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+
+    JsonLinesRowSink(Path file, boolean gzip, int columnCount) throws IOException {
+        super(file, gzip, columnCount);
+        generator = JSON_FACTORY.createGenerator(writer);
+        generator.setRootValueSeparator(null);
+        // The sink closes the writer itself, after the generator has flushed.
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    protected void writeHeader(String[] headers) {
+        // Every line names its columns.
+    }
+
+    @Override
+    protected void writeRow(String[] headers, String[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            generator.writeStringField(headers[i], values[i]);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,144 @@
+package com.ontlogieai.transformation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over a fixed list of keywords. {@link #findBest(String)} scans the text once and
+ * returns the matched keyword with the highest priority, where priority is the keyword's position in the list
+ * given to the factory methods. Lookups do not allocate and the instance is safe to share between threads.
+ */
+final class KeywordAutomaton {
+
+    private static final KeywordAutomaton EMPTY = inPriorityOrder(List.of());
+
+    private final String[] keywords;
+    // Per state: sorted outgoing characters and their target states.
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failure;
+    // Per state: best (lowest) keyword rank ending here or at any failure-link suffix, -1 if none.
+    private final int[] bestRank;
+
+    private KeywordAutomaton(List<String> keywords) {
+        this.keywords = keywords.toArray(new String[0]);
+
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<Integer> ranks = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        ranks.add(-1);
+
+        for (int rank = 0; rank < this.keywords.length; rank++) {
+            int state = 0;
+            for (char c : this.keywords[rank].toCharArray()) {
+                Integer next = edges.get(state).get(c);
+                if (next == null) {
+                    next = edges.size();
+                    edges.get(state).put(c, next);
+                    edges.add(new TreeMap<>());
+                    ranks.add(-1);
+                }
+                state = next;
+            }
+            if (ranks.get(state) == -1) {
+                ranks.set(state, rank);
+            }
+        }
+
+        int stateCount = edges.size();
+        labels = new char[stateCount][];
+        targets = new int[stateCount][];
+        failure = new int[stateCount];
+        bestRank = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            TreeMap<Character, Integer> out = edges.get(state);
+            labels[state] = new char[out.size()];
+            targets[state] = new int[out.size()];
+            int i = 0;
+            for (var edge : out.entrySet()) {
+                labels[state][i] = edge.getKey();
+                targets[state][i++] = edge.getValue();
+            }
+            bestRank[state] = ranks.get(state);
+        }
+
+        // Breadth-first so that failure targets are complete before their dependants.
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < labels[state].length; i++) {
+                int child = targets[state][i];
+                int fallback = failure[state];
+                int next;
+                while ((next = step(fallback, labels[state][i])) == -1 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = next == -1 ? 0 : next;
+                bestRank[child] = better(bestRank[child], bestRank[failure[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Keywords are ranked by list position; the first listed keyword found anywhere in the text wins.
+     */
+    static KeywordAutomaton inPriorityOrder(List<String> keywords) {
+        return new KeywordAutomaton(keywords);
+    }
+
+    /**
+     * Longer keywords win; keywords of equal length are ranked alphabetically.
+     */
+    static KeywordAutomaton longestFirst(Iterable<String> keywords) {
+        List<String> sorted = new ArrayList<>();
+        keywords.forEach(sorted::add);
+        sorted.sort(Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()));
+        return inPriorityOrder(sorted);
+    }
+
+    static KeywordAutomaton empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the highest-priority keyword contained in {@code text}, or {@code null} if none is.
+     */
+    String findBest(CharSequence text) {
+        int state = 0;
+        int best = bestRank[0];
+        for (int i = 0, n = text.length(); i < n && best != 0; i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = step(state, c)) == -1 && state != 0) {
+                state = failure[state];
+            }
+            state = next == -1 ? 0 : next;
+            best = better(best, bestRank[state]);
+        }
+        return best == -1 ? null : keywords[best];
+    }
+
+    List<String> keywords() {
+        return Arrays.asList(keywords);
+    }
+
+    private int step(int state, char c) {
+        int i = Arrays.binarySearch(labels[state], c);
+        return i < 0 ? -1 : targets[state][i];
+    }
+
+    private static int better(int rank, int other) {
+        if (rank == -1) return other;
+        if (other == -1) return rank;
+        return Math.min(rank, other);
+    }
+}
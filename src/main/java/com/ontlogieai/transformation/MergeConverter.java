@@ -0,0 +1,330 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.Main;
+import com.ontlogieai.batch.BatchConverter;
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.config.MergeDuplicates;
+import com.ontlogieai.config.MergeLayout;
+import com.ontlogieai.config.SheetMapping;
+import com.ontlogieai.file.FileUtil;
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.input.DvlRowHandler;
+import com.ontlogieai.input.DvlSheetReader;
+import com.ontlogieai.metrics.ConversionMetrics;
+import com.ontlogieai.metrics.ConversionMetrics.Stage;
+import com.ontlogieai.reference.ReferenceData;
+import com.ontlogieai.reference.ReferenceDataCache;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Converts several DVL files into one consolidated APL workbook. Inputs are read and transformed in parallel;
+ * a single writer then copies the reference sheets once and writes the generated rows either to one sheet per
+ * input or to one combined sheet, dropping device tags that an earlier (or later) input already contains
+ * according to {@link Configuration#getMergeDuplicates()}. Only the first of the configured sheet mappings is
+ * merged: every input is expected to be one floor of the same kind of sheet.
+ */
+public class MergeConverter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergeConverter.class);
+
+    private static final String DEFAULT_OUTPUT = Main.UPLOAD_DIR + "Merged_APL.xlsx";
+    private static final String USAGE = "Usage: --merge [--output merged.xlsx] [--threads N] [--layout PER_FLOOR|COMBINED] "
+            + "[--duplicates FIRST|LAST|ALL] <dir|glob|file>...";
+    private static final String SOURCE_HEADER = "Source File";
+    // First column after the APL headers written by ExcelProcessor.addHeaderRow.
+    private static final int SOURCE_COLUMN = ExcelProcessor.HEADERS.length;
+
+    private final int threads;
+    private final RowTransformer rowTransformer = new RowTransformer(new DeviceTagMapper());
+
+    /** The transformed rows of one input, kept until the writer gets to it. */
+    private record FloorRows(File input, DvlSheetReader.Result result, List<TransformedRow> rows,
+                             long headerNanos, long parseNanos) {
+    }
+
+    public MergeConverter(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Entry point for {@code Main --merge [--output merged.xlsx] [--threads N] [--layout PER_FLOOR|COMBINED]
+     * [--duplicates FIRST|LAST|ALL] <dir|glob|file>...}. Layout and duplicate rule default to config.json.
+     */
+    public static int run(String[] args) {
+        Configuration configuration = ConfigurationReader.getConfiguration();
+        int threads = Runtime.getRuntime().availableProcessors();
+        File output = new File(DEFAULT_OUTPUT);
+        MergeLayout layout = configuration.getMergeLayout();
+        MergeDuplicates duplicates = configuration.getMergeDuplicates();
+        List<String> inputs = new ArrayList<>();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--output" -> output = new File(args[++i]);
+                    case "--threads" -> threads = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--layout" -> layout = MergeLayout.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    case "--duplicates" -> duplicates = MergeDuplicates.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    default -> inputs.add(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            // A non-numeric thread count, an unknown layout or duplicate rule, or a missing option value.
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            List<File> files = BatchConverter.resolveInputs(inputs);
+            if (files.isEmpty()) {
+                System.err.println(USAGE);
+                return 2;
+            }
+            FileUtil.ensureDirectoryExists(Main.UPLOAD_DIR);
+            new MergeConverter(threads).merge(files, output, configuration, layout, duplicates);
+            System.out.println("Merged " + files.size() + " files into " + output.getPath());
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Merge failed", e);
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    public void merge(List<File> inputs, File output, Configuration configuration, MergeLayout layout,
+                      MergeDuplicates duplicates) throws IOException, InterruptedException {
+        ConversionMetrics metrics = new ConversionMetrics("merge of " + inputs.size() + " files");
+        File written = null;
+        try {
+            long start = System.nanoTime();
+            ReferenceData referenceData = ReferenceDataCache.get();
+            metrics.addStageNanos(Stage.REFERENCE_LOAD, System.nanoTime() - start);
+
+            List<FloorRows> floors = transformAll(inputs, configuration, referenceData, metrics);
+            Set<String> droppedTags = new HashSet<>();
+            List<List<TransformedRow>> kept = deduplicate(floors, duplicates, droppedTags);
+            if (!droppedTags.isEmpty()) {
+                LOGGER.info("Dropped {} device tags already present in another input ({} rule)", droppedTags.size(), duplicates);
+            }
+
+            start = System.nanoTime();
+            write(floors, kept, output, configuration, referenceData, layout, metrics);
+            metrics.addStageNanos(Stage.WRITE, System.nanoTime() - start);
+            written = output;
+        } finally {
+            metrics.finish(written);
+        }
+        if (configuration.isMetricsSummary()) {
+            ExcelProcessor.writeMetricsSummary(metrics, output);
+        }
+    }
+
+    private List<FloorRows> transformAll(List<File> inputs, Configuration configuration, ReferenceData referenceData,
+                                         ConversionMetrics metrics) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+        try {
+            List<Future<FloorRows>> futures = new ArrayList<>(inputs.size());
+            for (File input : inputs) {
+                futures.add(executor.submit(() -> transform(input, mergedSheet(configuration), new ConversionContext(configuration,
+                        referenceData, mergedSheet(configuration).getReferenceSheet(), null, null, metrics, List.of()))));
+            }
+            List<FloorRows> floors = new ArrayList<>(inputs.size());
+            for (Future<FloorRows> future : futures) {
+                FloorRows floor = future.get();
+                // Stage times and row counts of ConversionMetrics are only updated from this thread.
+                metrics.addStageNanos(Stage.HEADER_DETECTION, floor.headerNanos());
+                metrics.addStageNanos(Stage.INPUT_PARSE, floor.parseNanos());
+                floor.rows().forEach(row -> metrics.rowRead());
+                floors.add(floor);
+            }
+            return floors;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Reads one input and transforms its rows on the calling thread; the inputs themselves run in parallel.
+     */
+    private FloorRows transform(File input, SheetMapping mapping, ConversionContext context) throws IOException {
+        Configuration configuration = context.getConfiguration();
+        DvlSheetReader reader = DvlSheetReader.forFile(input, configuration.isStreamingInput(), configuration.getRequiredHeaders());
+        List<TransformedRow> rows = new ArrayList<>();
+        long start = System.nanoTime();
+        long[] headerAndRowNanos = new long[2];
+        DvlSheetReader.Result result = reader.read(input, mapping.getInputSheet(), new DvlRowHandler() {
+            @Override
+            public void startSheet() {
+            }
+
+            @Override
+            public void headerRow(int deviceTagColumnIndex, int pointDescriptorColumnIndex) {
+                headerAndRowNanos[0] = System.nanoTime() - start;
+                context.setInputColumns(deviceTagColumnIndex, pointDescriptorColumnIndex);
+            }
+
+            @Override
+            public void row(DvlRow row) {
+                long rowStart = System.nanoTime();
+                rows.add(rowTransformer.transform(context, row));
+                headerAndRowNanos[1] += System.nanoTime() - rowStart;
+            }
+        });
+        if (result != DvlSheetReader.Result.COMPLETED) {
+            LOGGER.warn("Skipping {} in the merge: {}", input.getName(), result);
+        }
+        long parseNanos = System.nanoTime() - start - headerAndRowNanos[0] - headerAndRowNanos[1];
+        return new FloorRows(input, result, rows, headerAndRowNanos[0], parseNanos);
+    }
+
+    /**
+     * Returns, per input, the rows that survive the duplicate rule. Rows without output are always kept so that
+     * {@link #writeRows} counts them as unmapped, and rows without a device tag are never treated as duplicates.
+     */
+    private static List<List<TransformedRow>> deduplicate(List<FloorRows> floors, MergeDuplicates duplicates,
+                                                          Set<String> droppedTags) {
+        Map<String, Integer> owner = new HashMap<>();
+        if (duplicates != MergeDuplicates.ALL) {
+            for (int floor = 0; floor < floors.size(); floor++) {
+                for (TransformedRow row : floors.get(floor).rows()) {
+                    String tag = tagKey(row);
+                    if (!tag.isEmpty() && !row.outputRows().isEmpty()) {
+                        if (duplicates == MergeDuplicates.LAST) {
+                            owner.put(tag, floor);
+                        } else {
+                            owner.putIfAbsent(tag, floor);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<List<TransformedRow>> kept = new ArrayList<>(floors.size());
+        for (int floor = 0; floor < floors.size(); floor++) {
+            List<TransformedRow> floorRows = new ArrayList<>();
+            for (TransformedRow row : floors.get(floor).rows()) {
+                if (row.outputRows().isEmpty()) {
+                    floorRows.add(row);
+                    continue;
+                }
+                Integer tagOwner = owner.get(tagKey(row));
+                if (tagOwner == null || tagOwner == floor) {
+                    floorRows.add(row);
+                } else {
+                    droppedTags.add(tagKey(row));
+                }
+            }
+            kept.add(floorRows);
+        }
+        return kept;
+    }
+
+    private static String tagKey(TransformedRow row) {
+        String deviceTag = row.row().deviceTag();
+        return deviceTag == null ? "" : deviceTag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void write(List<FloorRows> floors, List<List<TransformedRow>> kept, File output, Configuration configuration,
+                       ReferenceData referenceData, MergeLayout layout, ConversionMetrics metrics) throws IOException {
+        // The output is only opened once the workbook is built, so a failed merge leaves an earlier output intact.
+        try (Workbook workbook = ExcelProcessor.WorkbookFactory.createOutputWorkbook(configuration)) {
+            try {
+                ExcelProcessor.copyReferenceSheets(referenceData, workbook, List.of(mergedSheet(configuration)));
+                if (layout == MergeLayout.COMBINED) {
+                    Sheet sheet = workbook.createSheet(mergedSheet(configuration).getOutputSheet());
+                    ExcelProcessor.addHeaderRow(sheet);
+                    sheet.getRow(0).createCell(SOURCE_COLUMN).setCellValue(SOURCE_HEADER);
+                    int rowNum = 1;
+                    for (int floor = 0; floor < floors.size(); floor++) {
+                        rowNum = writeRows(sheet, rowNum, kept.get(floor), floors.get(floor).input().getName(), metrics);
+                    }
+                } else {
+                    Set<String> sheetNames = new HashSet<>();
+                    for (int floor = 0; floor < floors.size(); floor++) {
+                        if (floors.get(floor).result() != DvlSheetReader.Result.COMPLETED) {
+                            continue;
+                        }
+                        Sheet sheet = workbook.createSheet(sheetName(floors.get(floor).input(), sheetNames, workbook));
+                        ExcelProcessor.addHeaderRow(sheet);
+                        writeRows(sheet, 1, kept.get(floor), null, metrics);
+                    }
+                }
+                try (FileOutputStream fos = new FileOutputStream(output)) {
+                    workbook.write(fos);
+                } catch (IOException | RuntimeException e) {
+                    deleteIncompleteOutput(output);
+                    throw e;
+                }
+            } finally {
+                ExcelProcessor.WorkbookFactory.dispose(workbook);
+            }
+        }
+    }
+
+    private static void deleteIncompleteOutput(File output) {
+        try {
+            Files.deleteIfExists(output.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete incomplete output {}", output, e);
+        }
+    }
+
+    private static SheetMapping mergedSheet(Configuration configuration) {
+        return configuration.getSheetMappings().get(0);
+    }
+
+    private static int writeRows(Sheet sheet, int rowNum, List<TransformedRow> rows, String source, ConversionMetrics metrics) {
+        for (TransformedRow transformed : rows) {
+            for (OutputRow outputRow : transformed.outputRows()) {
+                Row row = sheet.createRow(rowNum++);
+                outputRow.writeTo(row);
+                if (source != null) {
+                    row.createCell(SOURCE_COLUMN).setCellValue(source);
+                }
+            }
+            metrics.rowWritten(transformed.outputRows().size());
+        }
+        return rowNum;
+    }
+
+    /**
+     * A valid, unique sheet name derived from the input file name; Excel limits sheet names to 31 characters.
+     */
+    private static String sheetName(File input, Set<String> used, Workbook workbook) {
+        String baseName = input.getName().replaceFirst("\\.xlsx?$", "");
+        String name = WorkbookUtil.createSafeSheetName(baseName);
+        for (int suffix = 2; !used.add(name.toLowerCase(Locale.ROOT)) || workbook.getSheet(name) != null; suffix++) {
+            String tail = " (" + suffix + ")";
+            name = WorkbookUtil.createSafeSheetName(baseName.substring(0, Math.min(baseName.length(), 31 - tail.length())) + tail);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.input.DvlRow;
+import com.ontlogieai.metrics.ConversionMetrics;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Transforms DVL rows on a worker pool while a single writer appends the results to the outputs in input
+ * order. At most {@code window} rows are in flight; when the window is full the reader thread writes the oldest
+ * row before submitting the next one, which keeps memory bounded no matter how long the sheet is. Without a pool
+ * every row is transformed and written inline.
+ */
+class OrderedRowPipeline {
+
+    private final ConversionContext context;
+    private final RowTransformer transformer;
+    private final ExecutorService pool;
+    private final int window;
+    private final ArrayDeque<CompletableFuture<TransformedRow>> inFlight;
+
+    OrderedRowPipeline(ConversionContext context, RowTransformer transformer, ExecutorService pool, int window) {
+        this.context = context;
+        this.transformer = transformer;
+        this.pool = pool;
+        this.window = Math.max(1, window);
+        this.inFlight = new ArrayDeque<>(this.window);
+    }
+
+    void submit(DvlRow row) {
+        if (pool == null) {
+            write(transformer.transform(context, row));
+            return;
+        }
+        while (inFlight.size() >= window) {
+            writeOldest();
+        }
+        inFlight.add(CompletableFuture.supplyAsync(() -> transformer.transform(context, row), pool));
+    }
+
+    /** Writes every row still in flight. Called on the reader thread once the sheet has been read. */
+    void finish() {
+        while (!inFlight.isEmpty()) {
+            writeOldest();
+        }
+    }
+
+    /** Drops rows still in flight after the read failed. */
+    void cancel() {
+        inFlight.forEach(future -> future.cancel(false));
+        inFlight.clear();
+    }
+
+    private void writeOldest() {
+        try {
+            write(inFlight.poll().join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /** Writes a row that was transformed elsewhere, e.g. by a sheet converted on another thread. */
+    void write(TransformedRow transformed) {
+        long start = System.nanoTime();
+        Sheet sheet = context.getOutputSheet();
+        if (sheet != null) {
+            int firstRowNum = -1;
+            for (OutputRow row : transformed.outputRows()) {
+                int rowNum = context.nextRowNum();
+                if (firstRowNum < 0) {
+                    firstRowNum = rowNum;
+                }
+                row.writeTo(sheet.createRow(rowNum));
+            }
+            IncrementalOutput incrementalOutput = context.getIncrementalOutput();
+            if (incrementalOutput != null) {
+                incrementalOutput.record(transformed, firstRowNum);
+            }
+        }
+        for (TextRowSink sink : context.getTextSinks()) {
+            try {
+                for (OutputRow row : transformed.outputRows()) {
+                    sink.write(row);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ConversionMetrics metrics = context.getMetrics();
+        metrics.rowWritten(transformed.outputRows().size());
+        metrics.addStageNanos(ConversionMetrics.Stage.WRITE, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ontlogieai.transformation;
+
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * One output row: the compiled reference row it comes from and the values of its slots, produced off the writer
+ * thread and written to the POI sheet later.
+ */
+record OutputRow(RowTemplate template, String[] slotValues) {
+
+    void writeTo(Row row) {
+        template.writeTo(row, slotValues);
+    }
+
+    void writeTextTo(String[] values) {
+        template.writeTextTo(values, slotValues);
+    }
+}
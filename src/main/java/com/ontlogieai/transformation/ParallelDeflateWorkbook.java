@@ -0,0 +1,38 @@
+package com.ontlogieai.transformation;
+
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.OutputStream;
+
+/**
+ * Streaming workbook whose {@link #write} deflates the parts of the xlsx package (every sheet, shared strings,
+ * styles) on several threads and with a chosen compression level, instead of one part after the other on the
+ * writing thread. POI still serializes the parts; only the compression moves to {@link ParallelZipOutputStream}.
+ * POI defaults to {@link Zip64Mode#Always}, which only its own archive stream writes in a form Excel accepts, so
+ * this workbook switches to {@link Zip64Mode#AsNeeded}: the parts' sizes are known when they are written, and
+ * Zip64 records appear only for parts beyond 4 GB. Setting {@code Always} again falls back to POI's stream.
+ */
+class ParallelDeflateWorkbook extends SXSSFWorkbook {
+
+    private final int compressionLevel;
+    private final int workers;
+
+    ParallelDeflateWorkbook(int rowAccessWindowSize, int compressionLevel, int workers) {
+        super(rowAccessWindowSize);
+        this.compressionLevel = compressionLevel;
+        this.workers = Math.max(1, workers);
+        setZip64Mode(Zip64Mode.AsNeeded);
+    }
+
+    @Override
+    protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream out) {
+        if (zip64Mode == Zip64Mode.Always) {
+            return super.createArchiveOutputStream(out);
+        }
+        ZipArchiveOutputStream zos = new ParallelZipOutputStream(out, compressionLevel, workers);
+        zos.setUseZip64(zip64Mode);
+        return zos;
+    }
+}
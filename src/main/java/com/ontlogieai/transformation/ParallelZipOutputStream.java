@@ -0,0 +1,218 @@
+package com.ontlogieai.transformation;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Zip output that deflates its entries in parallel. Entries are written by one thread as usual, but
+ * {@link #closeArchiveEntry()} only hands the uncompressed bytes to a {@link ParallelScatterZipCreator}; the
+ * compressed entries are written, in the order they were added, by {@link #finish()}. Uncompressed entries larger
+ * than {@link #SPILL_THRESHOLD} are kept in temporary files until then. A {@link #finish()} that fails, or closing
+ * the stream without one (POI only calls {@code finish}, also after a failed write), stops the compression and
+ * deletes all temporary files.
+ */
+class ParallelZipOutputStream extends ZipArchiveOutputStream {
+
+    static final int SPILL_THRESHOLD = 8 * 1024 * 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelZipOutputStream.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final ParallelScatterZipCreator creator;
+    private final int method;
+    private final List<Path> spillFiles = new ArrayList<>();
+    // Created on the compression threads, one per thread.
+    private final List<ScatterGatherBackingStore> backingStores = Collections.synchronizedList(new ArrayList<>());
+    private ZipArchiveEntry entry;
+    private EntryContent content;
+    private boolean compressed;
+
+    /**
+     * @param compressionLevel a {@link Deflater} level; 0 stores the entries uncompressed
+     */
+    ParallelZipOutputStream(OutputStream out, int compressionLevel, int workers) {
+        super(out);
+        executor = new ThreadPoolExecutor(workers, workers, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "xlsx-deflate-" + THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Idle threads end on their own, also when a failed write never reaches finish().
+        executor.allowCoreThreadTimeOut(true);
+        this.creator = new ParallelScatterZipCreator(executor, () -> {
+            ScatterGatherBackingStore backingStore = new FileBasedScatterGatherBackingStore(
+                    Files.createTempFile("xlsx-deflate", ".tmp").toFile());
+            backingStores.add(backingStore);
+            return backingStore;
+        }, compressionLevel);
+        this.method = compressionLevel == Deflater.NO_COMPRESSION ? ZipArchiveEntry.STORED : ZipArchiveEntry.DEFLATED;
+    }
+
+    @Override
+    public void putArchiveEntry(ArchiveEntry archiveEntry) throws IOException {
+        if (entry != null) {
+            closeArchiveEntry();
+        }
+        entry = new ZipArchiveEntry(archiveEntry.getName());
+        entry.setMethod(method);
+        entry.setTime(archiveEntry.getLastModifiedDate().getTime());
+        content = new EntryContent();
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int length) throws IOException {
+        if (entry == null) {
+            throw new IllegalStateException("No current entry");
+        }
+        content.write(b, offset, length);
+    }
+
+    @Override
+    public void closeArchiveEntry() throws IOException {
+        if (entry == null) {
+            throw new IOException("No current entry to close");
+        }
+        EntryContent closed = content;
+        closed.close();
+        creator.addArchiveEntry(entry, closed::openStream);
+        entry = null;
+        content = null;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        try {
+            if (entry != null) {
+                throw new IOException("This archive contains unclosed entries.");
+            }
+            creator.writeTo(this);
+            compressed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing the archive");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+        } finally {
+            if (!compressed) {
+                discard();
+            }
+            deleteSpillFiles();
+        }
+        super.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (!compressed) {
+                discard();
+                deleteSpillFiles();
+            }
+        }
+    }
+
+    /** Stops the compression of an archive that is not written out and deletes the compressed entries. */
+    private void discard() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("xlsx compression threads did not stop, their temporary files may be left behind");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (backingStores) {
+            for (ScatterGatherBackingStore backingStore : backingStores) {
+                try {
+                    backingStore.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Could not delete compression temp file", e);
+                }
+            }
+        }
+    }
+
+    private void deleteSpillFiles() {
+        for (Path file : spillFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.debug("Could not delete entry temp file {}", file, e);
+            }
+        }
+    }
+
+    /** The uncompressed bytes of one entry, in memory up to {@link #SPILL_THRESHOLD} and in a temp file beyond. */
+    private final class EntryContent extends OutputStream {
+
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOut;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int offset, int length) throws IOException {
+            if (file == null && memory.size() + length > SPILL_THRESHOLD) {
+                file = Files.createTempFile("xlsx-entry", ".tmp");
+                spillFiles.add(file);
+                fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+                memory.writeTo(fileOut);
+                memory = null;
+            }
+            (file == null ? memory : fileOut).write(b, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+
+        // Called on a compression thread; the stream is closed by the scatter output once it has been read.
+        InputStream openStream() {
+            if (file == null) {
+                return new ByteArrayInputStream(memory.toByteArray());
+            }
+            try {
+                return Files.newInputStream(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
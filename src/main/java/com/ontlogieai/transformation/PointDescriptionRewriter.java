@@ -0,0 +1,59 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces the leading "... - &lt;descriptor key&gt;" part of a reference Point Description with the DVL point
+ * description. One pattern per configured descriptor key (plus the empty key) is compiled up front; keys are
+ * matched literally.
+ */
+public class PointDescriptionRewriter {
+
+    private final Map<String, Pattern> patternsByKey;
+
+    public PointDescriptionRewriter(Configuration configuration) {
+        Map<String, Pattern> patterns = new HashMap<>();
+        patterns.put("", compile(""));
+        for (List<String> keys : configuration.getDeviceKeyMapping().values()) {
+            for (String key : keys) {
+                patterns.computeIfAbsent(key, PointDescriptionRewriter::compile);
+            }
+        }
+        this.patternsByKey = Map.copyOf(patterns);
+    }
+
+    /**
+     * Returns a matcher for {@code descriptorKey}. Matchers are not thread-safe, so callers keep one per DVL row
+     * and reuse it for every template row copied for that row.
+     */
+    public Matcher matcher(String descriptorKey) {
+        Pattern pattern = patternsByKey.get(descriptorKey);
+        return (pattern != null ? pattern : compile(descriptorKey)).matcher("");
+    }
+
+    public String rewrite(String descriptorKey, String pointDescription, String target) {
+        return rewrite(matcher(descriptorKey), pointDescription, target);
+    }
+
+    /**
+     * Replaces the prefix of {@code target} up to and including " - &lt;key&gt;" with the whole DVL point
+     * description. The description is inserted literally.
+     */
+    public static String rewrite(Matcher matcher, String pointDescription, String target) {
+        matcher.reset(target);
+        if (!matcher.lookingAt()) {
+            return target;
+        }
+        return pointDescription + target.substring(matcher.end());
+    }
+
+    private static Pattern compile(String descriptorKey) {
+        return Pattern.compile("^(.*? - " + Pattern.quote(descriptorKey) + ")");
+    }
+}
@@ -0,0 +1,155 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.reference.ReferenceCell;
+import com.ontlogieai.reference.ReferenceRow;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the rows of one sheet of a previously generated workbook as typed cells, streaming the sheet XML so the
+ * copied reference sheets of the workbook are never loaded.
+ */
+final class PreviousOutputReader {
+
+    private PreviousOutputReader() {
+    }
+
+    /**
+     * @return rows by 0-based row number, empty if the workbook has no such sheet
+     */
+    static Map<Integer, ReferenceRow> readSheet(File workbook, String sheetName) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(workbook, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheetName.equalsIgnoreCase(sheets.getSheetName())) {
+                        SheetHandler handler = new SheetHandler(sharedStrings);
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(handler);
+                        parser.parse(new InputSource(sheet));
+                        return handler.rows;
+                    }
+                }
+            }
+            return Map.of();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not read previous output " + workbook.getName(), e);
+        }
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final Map<Integer, ReferenceRow> rows = new HashMap<>();
+        private final StringBuilder text = new StringBuilder();
+
+        private int rowNum;
+        private List<ReferenceCell> cells;
+        private int column;
+        private String type;
+        private String value;
+        private String formula;
+        private String inlineText;
+        private boolean collecting;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings) {
+            this.sharedStrings = sharedStrings;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    rowNum = Integer.parseInt(attributes.getValue("r")) - 1;
+                    cells = new ArrayList<>();
+                }
+                case "c" -> {
+                    column = new CellReference(attributes.getValue("r")).getCol();
+                    type = attributes.getValue("t");
+                    value = null;
+                    formula = null;
+                    inlineText = null;
+                }
+                case "v", "f" -> startText();
+                case "t" -> {
+                    if (inlineText == null) {
+                        inlineText = "";
+                    }
+                    startText();
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v" -> value = endText();
+                case "f" -> formula = endText();
+                case "t" -> inlineText = inlineText + endText();
+                case "c" -> cells.add(toCell());
+                case "row" -> rows.put(rowNum, new ReferenceRow(rowNum, List.copyOf(cells)));
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void startText() {
+            text.setLength(0);
+            collecting = true;
+        }
+
+        private String endText() {
+            collecting = false;
+            return text.toString();
+        }
+
+        private ReferenceCell toCell() {
+            if (formula != null) {
+                return new ReferenceCell(column, CellType.FORMULA, formula, 0, false);
+            }
+            if (type == null || type.equals("n")) {
+                return value == null
+                        ? new ReferenceCell(column, CellType.BLANK, null, 0, false)
+                        : new ReferenceCell(column, CellType.NUMERIC, null, Double.parseDouble(value), false);
+            }
+            return switch (type) {
+                case "inlineStr" -> new ReferenceCell(column, CellType.STRING, inlineText != null ? inlineText : "", 0, false);
+                case "s" -> new ReferenceCell(column, CellType.STRING, sharedStrings.getItemAt(Integer.parseInt(value)).getString(), 0, false);
+                case "str" -> new ReferenceCell(column, CellType.STRING, value != null ? value : "", 0, false);
+                case "b" -> new ReferenceCell(column, CellType.BOOLEAN, null, 0, "1".equals(value));
+                default -> new ReferenceCell(column, CellType.ERROR, null, 0, false);
+            };
+        }
+    }
+}
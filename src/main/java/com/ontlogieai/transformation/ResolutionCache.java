@@ -0,0 +1,57 @@
+package com.ontlogieai.transformation;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, direct-mapped cache of {@link TagResolution}s keyed by (device type, normalized point description). A
+ * slot holds one immutable entry and a colliding key simply replaces it, so the cache never grows beyond its
+ * capacity and a hit allocates nothing. Safe for concurrent use.
+ */
+final class ResolutionCache {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Entry(String deviceType, String pointDescription, TagResolution resolution) {
+    }
+
+    ResolutionCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    TagResolution get(String deviceType, String pointDescription) {
+        Entry entry = slots.get(slot(deviceType, pointDescription));
+        if (entry != null && entry.pointDescription().equals(pointDescription) && entry.deviceType().equals(deviceType)) {
+            hits.increment();
+            return entry.resolution();
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(String deviceType, String pointDescription, TagResolution resolution) {
+        slots.set(slot(deviceType, pointDescription), new Entry(deviceType, pointDescription, resolution));
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    private int slot(String deviceType, String pointDescription) {
+        int h = 31 * deviceType.hashCode() + pointDescription.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
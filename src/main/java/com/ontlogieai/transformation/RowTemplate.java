@@ -0,0 +1,191 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.reference.ReferenceCell;
+import com.ontlogieai.reference.ReferenceRow;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * A reference row compiled for one standard device tag. Cell values are held in primitive arrays, and the cells
+ * that depend on the DVL row are marked as slots: text cells containing the standard tag (pre-split around it)
+ * and the point description column. Emitting a row only fills the slots.
+ */
+final class RowTemplate {
+
+    private static final byte TEXT = 0;
+    private static final byte TAG_TEXT = 1;
+    private static final byte POINT_DESCRIPTION = 2;
+    private static final byte NUMERIC = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte FORMULA = 5;
+    private static final byte BLANK = 6;
+    private static final byte EMPTY = 7;
+
+    private final int[] columns;
+    private final byte[] kinds;
+    private final String[] texts;
+    private final double[] numbers;
+    // TAG_TEXT cells: the template text split around every occurrence of the standard tag.
+    private final String[][] fragments;
+    // Slot number of each TAG_TEXT or POINT_DESCRIPTION cell, -1 for constant cells.
+    private final int[] slots;
+    private final int slotCount;
+
+    private RowTemplate(int[] columns, byte[] kinds, String[] texts, double[] numbers, String[][] fragments, int[] slots, int slotCount) {
+        this.columns = columns;
+        this.kinds = kinds;
+        this.texts = texts;
+        this.numbers = numbers;
+        this.fragments = fragments;
+        this.slots = slots;
+        this.slotCount = slotCount;
+    }
+
+    static RowTemplate compile(Configuration configuration, ReferenceRow row, String standardDeviceTag) {
+        int pointDescriptionColumn = configuration.getPointDescriptionIndexInOutputFile();
+        return compile(row, standardDeviceTag, pointDescriptionColumn != configuration.getDeviceTagIndexInOutputFile() ? pointDescriptionColumn : -1);
+    }
+
+    /**
+     * A template without slots that writes {@code row} back exactly as it is, for rows taken from a previous output.
+     */
+    static RowTemplate verbatim(ReferenceRow row) {
+        return compile(row, "", -1);
+    }
+
+    private static RowTemplate compile(ReferenceRow row, String standardDeviceTag, int pointDescriptionColumn) {
+        List<ReferenceCell> cells = row.cells();
+        int cellCount = cells.size();
+        int[] columns = new int[cellCount];
+        byte[] kinds = new byte[cellCount];
+        String[] texts = new String[cellCount];
+        double[] numbers = new double[cellCount];
+        String[][] fragments = new String[cellCount][];
+        int[] slots = new int[cellCount];
+        int slotCount = 0;
+
+        for (int i = 0; i < cellCount; i++) {
+            ReferenceCell cell = cells.get(i);
+            int column = cell.columnIndex();
+            columns[i] = column;
+            slots[i] = -1;
+            switch (cell.type()) {
+                case STRING -> {
+                    texts[i] = cell.stringValue();
+                    if (column == pointDescriptionColumn) {
+                        kinds[i] = POINT_DESCRIPTION;
+                        slots[i] = slotCount++;
+                    } else if (!standardDeviceTag.isEmpty() && cell.stringValue().contains(standardDeviceTag)) {
+                        kinds[i] = TAG_TEXT;
+                        fragments[i] = split(cell.stringValue(), standardDeviceTag);
+                        slots[i] = slotCount++;
+                    } else {
+                        kinds[i] = TEXT;
+                    }
+                }
+                case NUMERIC -> {
+                    kinds[i] = NUMERIC;
+                    numbers[i] = cell.numericValue();
+                }
+                case BOOLEAN -> {
+                    kinds[i] = BOOLEAN;
+                    numbers[i] = cell.booleanValue() ? 1 : 0;
+                }
+                case FORMULA -> {
+                    kinds[i] = FORMULA;
+                    texts[i] = cell.stringValue();
+                }
+                case BLANK -> kinds[i] = BLANK;
+                default -> kinds[i] = EMPTY;
+            }
+        }
+        return new RowTemplate(columns, kinds, texts, numbers, fragments, slots, slotCount);
+    }
+
+    /** The output row of a template without slots. */
+    OutputRow constant() {
+        return new OutputRow(this, new String[0]);
+    }
+
+    /**
+     * Computes the slot values for one DVL row. {@code pointDescriptionMatcher} belongs to the row's descriptor key.
+     */
+    OutputRow emit(String deviceTag, String pointDescription, Matcher pointDescriptionMatcher) {
+        String[] values = new String[slotCount];
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] == TAG_TEXT) {
+                values[slots[i]] = join(fragments[i], deviceTag);
+            } else if (kinds[i] == POINT_DESCRIPTION) {
+                values[slots[i]] = PointDescriptionRewriter.rewrite(pointDescriptionMatcher, pointDescription, texts[i]);
+            }
+        }
+        return new OutputRow(this, values);
+    }
+
+    void writeTo(Row row, String[] slotValues) {
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case TEXT -> row.createCell(columns[i]).setCellValue(texts[i]);
+                case TAG_TEXT, POINT_DESCRIPTION -> row.createCell(columns[i]).setCellValue(slotValues[slots[i]]);
+                case NUMERIC -> row.createCell(columns[i]).setCellValue(numbers[i]);
+                case BOOLEAN -> row.createCell(columns[i]).setCellValue(numbers[i] != 0);
+                case FORMULA -> row.createCell(columns[i]).setCellFormula(texts[i]);
+                case BLANK -> row.createCell(columns[i]).setBlank();
+                default -> row.createCell(columns[i]);
+            }
+        }
+    }
+
+    /**
+     * Fills {@code values} with the text of every cell whose column lies within it, for the text output formats.
+     * Numbers are written without a fraction when they are whole and formulas as {@code =formula}.
+     */
+    void writeTextTo(String[] values, String[] slotValues) {
+        for (int i = 0; i < kinds.length; i++) {
+            if (columns[i] >= values.length) {
+                continue;
+            }
+            values[columns[i]] = switch (kinds[i]) {
+                case TEXT -> texts[i];
+                case TAG_TEXT, POINT_DESCRIPTION -> slotValues[slots[i]];
+                case NUMERIC -> formatNumber(numbers[i]);
+                case BOOLEAN -> numbers[i] != 0 ? "TRUE" : "FALSE";
+                case FORMULA -> "=" + texts[i];
+                default -> "";
+            };
+        }
+    }
+
+    private static String formatNumber(double number) {
+        if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+            return Long.toString((long) number);
+        }
+        return Double.toString(number);
+    }
+
+    private static String[] split(String text, String tag) {
+        int count = 1;
+        for (int from = text.indexOf(tag); from >= 0; from = text.indexOf(tag, from + tag.length())) {
+            count++;
+        }
+        String[] parts = new String[count];
+        int start = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int end = text.indexOf(tag, start);
+            parts[i] = text.substring(start, end);
+            start = end + tag.length();
+        }
+        parts[count - 1] = text.substring(start);
+        return parts;
+    }
+
+    private static String join(String[] parts, String deviceTag) {
+        if (parts.length == 2) {
+            return parts[0].concat(deviceTag).concat(parts[1]);
+        }
+        return String.join(deviceTag, parts);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.reference.ReferenceIndex;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled {@link RowTemplate}s per standard device tag, valid for one configuration and one reference index.
+ * Bounded by the number of standard tags in deviceTagMapping. {@link #of} keeps the caches of the most recently
+ * used (configuration, reference index) pairs, so several mapped reference sheets and conversions still running
+ * on a reloaded configuration each keep their templates.
+ */
+final class RowTemplateCache {
+
+    private static final int MAX_CACHES = 16;
+
+    // Configuration and ReferenceIndex compare by identity; access order makes the eldest entry the least used.
+    private static final Map<Key, RowTemplateCache> CACHES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, RowTemplateCache> eldest) {
+            return size() > MAX_CACHES;
+        }
+    };
+
+    private record Key(Configuration configuration, ReferenceIndex referenceIndex) {
+    }
+
+    private final Configuration configuration;
+    private final ReferenceIndex referenceIndex;
+    private final Map<String, List<RowTemplate>> templates = new ConcurrentHashMap<>();
+
+    private RowTemplateCache(Configuration configuration, ReferenceIndex referenceIndex) {
+        this.configuration = configuration;
+        this.referenceIndex = referenceIndex;
+    }
+
+    static RowTemplateCache of(Configuration configuration, ReferenceIndex referenceIndex) {
+        synchronized (CACHES) {
+            return CACHES.computeIfAbsent(new Key(configuration, referenceIndex),
+                    key -> new RowTemplateCache(key.configuration(), key.referenceIndex()));
+        }
+    }
+
+    List<RowTemplate> get(String standardDeviceTag) {
+        return templates.computeIfAbsent(standardDeviceTag, tag -> referenceIndex.getRows(tag).stream()
+                .map(row -> RowTemplate.compile(configuration, row, tag))
+                .toList());
+    }
+}
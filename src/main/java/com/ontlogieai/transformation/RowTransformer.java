@@ -0,0 +1,69 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.input.DvlRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * Turns a DVL row into the output rows copied from its reference template rows. Touches no POI objects and is
+ * safe to call from several threads for rows of the same conversion.
+ */
+class RowTransformer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RowTransformer.class);
+
+    private final DeviceTagMapper deviceTagMapper;
+
+    RowTransformer(DeviceTagMapper deviceTagMapper) {
+        this.deviceTagMapper = deviceTagMapper;
+    }
+
+    TransformedRow transform(ConversionContext context, DvlRow row) {
+        long start = System.nanoTime();
+        try {
+            return transformRow(context, row);
+        } finally {
+            context.getMetrics().addTransformNanos(System.nanoTime() - start);
+        }
+    }
+
+    private TransformedRow transformRow(ConversionContext context, DvlRow row) {
+        IncrementalOutput incrementalOutput = context.getIncrementalOutput();
+        if (incrementalOutput != null) {
+            TransformedRow reused = incrementalOutput.reuse(row);
+            if (reused != null) {
+                return reused;
+            }
+        }
+        String deviceTag = row.deviceTag();
+        String pointDescription = row.pointDescription();
+        TagResolution resolution = deviceTagMapper.resolve(context.getConfiguration(), deviceTag, pointDescription, context.getMetrics());
+        String standardDeviceTag = resolution.standardDeviceTag();
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Processing row - Device Tag: {}, Point Description: {}, Standard Device Tag: {}",
+                    deviceTag, pointDescription, standardDeviceTag);
+        }
+
+        if (standardDeviceTag == null || standardDeviceTag.equalsIgnoreCase("Device Tag") || standardDeviceTag.isEmpty()) {
+            return new TransformedRow(row, standardDeviceTag, List.of());
+        }
+        try {
+            List<RowTemplate> templates = context.getRowTemplates().get(standardDeviceTag);
+            // The descriptor key is resolved once per DVL row, so one matcher serves every copied template row.
+            Matcher pointDescriptionMatcher = context.getPointDescriptionRewriter().matcher(resolution.descriptorKey());
+            List<OutputRow> outputRows = new ArrayList<>(templates.size());
+            for (RowTemplate template : templates) {
+                outputRows.add(template.emit(deviceTag, pointDescription, pointDescriptionMatcher));
+            }
+            return new TransformedRow(row, standardDeviceTag, outputRows);
+        } catch (Exception e) {
+            LOGGER.error("Error processing reference workbook", e);
+            return new TransformedRow(row, standardDeviceTag, List.of());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ontlogieai.transformation;
+
+/**
+ * Result of mapping a DVL row: the descriptor key found in its point description ("" if none) and the standard
+ * device tag of the reference rows to copy ("" if the row is not mapped).
+ */
+public record TagResolution(String descriptorKey, String standardDeviceTag) {
+}
@@ -0,0 +1,73 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.OutputFormat;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the generated APL rows to a text file as they are written, without building a workbook. The file is
+ * written through a buffered channel, gzip-compressed when requested; only the columns of the APL header are kept.
+ */
+abstract class TextRowSink implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final Writer writer;
+    private final String[] values;
+    private String[] headers;
+    private boolean closed;
+
+    protected TextRowSink(Path file, boolean gzip, int columnCount) throws IOException {
+        OutputStream out = Channels.newOutputStream(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.values = new String[columnCount];
+    }
+
+    static TextRowSink open(OutputFormat format, File file, boolean gzip, int columnCount) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvRowSink(file.toPath(), gzip, columnCount);
+            case JSONL -> new JsonLinesRowSink(file.toPath(), gzip, columnCount);
+            case XLSX -> throw new IllegalArgumentException("xlsx is not a text format");
+        };
+    }
+
+    void header(String[] headers) throws IOException {
+        this.headers = headers;
+        writeHeader(headers);
+    }
+
+    void write(OutputRow row) throws IOException {
+        Arrays.fill(values, "");
+        row.writeTextTo(values);
+        writeRow(headers, values);
+    }
+
+    protected abstract void writeHeader(String[] headers) throws IOException;
+
+    protected abstract void writeRow(String[] headers, String[] values) throws IOException;
+
+    /** Flushes and closes the file; later calls do nothing. */
+    @Override
+    public final void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            finish();
+            writer.close();
+        }
+    }
+
+    /** Writes anything the format buffers itself before the file is closed. */
+    protected void finish() throws IOException {
+    }
+}
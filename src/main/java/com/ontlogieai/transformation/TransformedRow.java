@@ -0,0 +1,11 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.input.DvlRow;
+
+import java.util.List;
+
+/**
+ * A DVL row together with the output rows generated for it, handed from the transformation stage to the writer.
+ */
+record TransformedRow(DvlRow row, String standardDeviceTag, List<OutputRow> outputRows) {
+}
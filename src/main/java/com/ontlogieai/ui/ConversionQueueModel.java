@@ -0,0 +1,133 @@
+package com.ontlogieai.ui;
+
+import com.ontlogieai.file.FileProcessor;
+import com.ontlogieai.file.FileUtil;
+
+import javax.swing.table.AbstractTableModel;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The GUI conversion queue: files run on a small worker pool, never on the event dispatch thread, and the table
+ * shows their progress. All methods must be called on the event dispatch thread; {@link #refresh()} is driven by
+ * a Swing timer.
+ */
+class ConversionQueueModel extends AbstractTableModel {
+
+    static final int PROGRESS_COLUMN = 2;
+
+    private static final String[] COLUMNS = {"File", "Status", "Progress", "Rows/s", "ETA"};
+
+    private final FileProcessor fileProcessor;
+    private final ExecutorService executor;
+    private final List<QueuedConversion> conversions = new ArrayList<>();
+
+    ConversionQueueModel(FileProcessor fileProcessor, int workers) {
+        this.fileProcessor = fileProcessor;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "conversion-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues every .xls/.xlsx file of {@code files}; other files are ignored.
+     *
+     * @return the number of files queued
+     */
+    int add(List<File> files) {
+        int firstRow = conversions.size();
+        for (File file : files) {
+            if (file.isFile() && FileUtil.isExcelFile(file)) {
+                QueuedConversion conversion = new QueuedConversion(file, fileProcessor);
+                conversions.add(conversion);
+                executor.execute(conversion);
+            }
+        }
+        if (conversions.size() > firstRow) {
+            fireTableRowsInserted(firstRow, conversions.size() - 1);
+        }
+        return conversions.size() - firstRow;
+    }
+
+    void cancel(int[] rows) {
+        for (int row : rows) {
+            conversions.get(row).cancel();
+        }
+        fireTableDataChanged();
+    }
+
+    void cancelAll() {
+        conversions.forEach(QueuedConversion::cancel);
+        fireTableDataChanged();
+    }
+
+    /** Drops finished conversions from the table. */
+    void clearFinished() {
+        conversions.removeIf(conversion -> conversion.getStatus().isFinished());
+        fireTableDataChanged();
+    }
+
+    /** Repaints the table with the current state of every conversion. */
+    void refresh() {
+        if (!conversions.isEmpty()) {
+            fireTableRowsUpdated(0, conversions.size() - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return conversions.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == PROGRESS_COLUMN ? Double.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        QueuedConversion conversion = conversions.get(row);
+        return switch (column) {
+            case 0 -> conversion.getInput().getName();
+            case 1 -> statusText(conversion);
+            case PROGRESS_COLUMN -> conversion.getProgress();
+            case 3 -> conversion.getRowsRead() == 0 ? "" : String.format("%,.0f", conversion.getRowsPerSecond());
+            case 4 -> formatEta(conversion.getEtaSeconds());
+            default -> "";
+        };
+    }
+
+    private static String statusText(QueuedConversion conversion) {
+        return switch (conversion.getStatus()) {
+            case QUEUED -> "Queued";
+            case RUNNING -> "Converting";
+            case DONE -> "Done: " + conversion.getMessage();
+            case FAILED -> "Failed: " + conversion.getMessage();
+            case CANCELLED -> "Cancelled";
+        };
+    }
+
+    private static String formatEta(long seconds) {
+        if (seconds < 0) {
+            return "";
+        }
+        return seconds < 60 ? seconds + " s" : String.format("%d:%02d min", seconds / 60, seconds % 60);
+    }
+}
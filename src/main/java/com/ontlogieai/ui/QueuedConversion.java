@@ -0,0 +1,143 @@
+package com.ontlogieai.ui;
+
+import com.ontlogieai.file.FileProcessor;
+import com.ontlogieai.transformation.ConversionProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * One file of the GUI conversion queue. The worker converting it writes the progress fields; the event dispatch
+ * thread only reads them when the table is repainted.
+ */
+class QueuedConversion implements Runnable, ConversionProgress {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueuedConversion.class);
+
+    enum Status {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final File input;
+    private final FileProcessor fileProcessor;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelled;
+    private volatile String message = "";
+    private volatile int lastRowNum = -1;
+    private volatile int currentRowNum;
+    private volatile long rowsRead;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    QueuedConversion(File input, FileProcessor fileProcessor) {
+        this.input = input;
+        this.fileProcessor = fileProcessor;
+    }
+
+    @Override
+    public void run() {
+        if (cancelled) {
+            status = Status.CANCELLED;
+            return;
+        }
+        startNanos = System.nanoTime();
+        status = Status.RUNNING;
+        try {
+            File output = fileProcessor.convert(input, this);
+            message = output.getPath();
+            status = Status.DONE;
+        } catch (CancellationException e) {
+            status = Status.CANCELLED;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to process file: {}", input.getName(), e);
+            message = String.valueOf(e.getMessage());
+            status = Status.FAILED;
+        } finally {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Stops the conversion at the next row; a conversion that has not started yet is skipped by its worker.
+     */
+    void cancel() {
+        cancelled = true;
+        if (status == Status.QUEUED) {
+            status = Status.CANCELLED;
+        }
+    }
+
+    @Override
+    public void sheetSize(int lastRowNum) {
+        this.lastRowNum = lastRowNum;
+    }
+
+    @Override
+    public void rowRead(int rowNum) {
+        currentRowNum = rowNum;
+        rowsRead++;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    File getInput() {
+        return input;
+    }
+
+    Status getStatus() {
+        return status;
+    }
+
+    String getMessage() {
+        return message;
+    }
+
+    long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return the fraction of the input sheet read so far, or -1 while the size of the sheet is unknown
+     */
+    double getProgress() {
+        if (status == Status.DONE) {
+            return 1;
+        }
+        int last = lastRowNum;
+        return last > 0 ? Math.min(1.0, (double) currentRowNum / last) : -1;
+    }
+
+    double getRowsPerSecond() {
+        double seconds = elapsedNanos() / 1e9;
+        return seconds > 0 ? rowsRead / seconds : 0;
+    }
+
+    /**
+     * @return the estimated seconds until the whole sheet has been read, or -1 when there is no estimate yet
+     */
+    long getEtaSeconds() {
+        double progress = getProgress();
+        if (status != Status.RUNNING || progress <= 0) {
+            return -1;
+        }
+        return Math.round(elapsedNanos() / 1e9 * (1 - progress) / progress);
+    }
+
+    private long elapsedNanos() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        return (status.isFinished() ? endNanos : System.nanoTime()) - startNanos;
+    }
+}
@@ -1,20 +1,33 @@
 package com.ontlogieai.ui;
 
+import com.ontlogieai.batch.BatchConverter;
 import com.ontlogieai.file.FileProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.TableCellRenderer;
 import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 public class UIUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(UIUtil.class);
 
-    private final FileProcessor fileProcessor;
+    // Rows are transformed on a pool of their own, so a few files at a time keep the machine busy.
+    private static final int CONVERSION_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int REFRESH_MILLIS = 250;
+
+    private final ConversionQueueModel queueModel;
 
     public UIUtil(){
-        fileProcessor = new FileProcessor();
+        queueModel = new ConversionQueueModel(new FileProcessor(), CONVERSION_WORKERS);
     }
 
     public void setLookAndFeel() {
@@ -29,25 +42,125 @@ public class UIUtil {
     public void createAndShowGUI() {
         JFrame frame = new JFrame("DVL TO AVL");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(500, 300);
+        frame.setSize(800, 400);
 
-        JPanel mainPanel = new JPanel();
-        mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 15));
         mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
 
         JLabel headerLabel = createLabel("Company Name (TODO)", Font.BOLD, 20);
         JButton uploadButton = createButton("DVL To AVL");
+        JButton cancelButton = createButton("Cancel");
+        JButton cancelAllButton = createButton("Cancel all");
+        JButton clearButton = createButton("Clear finished");
+
+        JTable table = new JTable(queueModel);
+        table.setDefaultRenderer(Double.class, new ProgressRenderer());
+        table.getColumnModel().getColumn(0).setPreferredWidth(250);
+        table.getColumnModel().getColumn(1).setPreferredWidth(200);
+        JScrollPane tableScrollPane = new JScrollPane(table);
+        tableScrollPane.setBorder(BorderFactory.createTitledBorder("Drop DVL files or folders here"));
+
+        uploadButton.addActionListener(e -> chooseFiles(frame));
+        cancelButton.addActionListener(e -> queueModel.cancel(table.getSelectedRows()));
+        cancelAllButton.addActionListener(e -> queueModel.cancelAll());
+        clearButton.addActionListener(e -> queueModel.clearFinished());
+        FileDropHandler dropHandler = new FileDropHandler();
+        frame.getRootPane().setTransferHandler(dropHandler);
+        table.setTransferHandler(dropHandler);
+        tableScrollPane.setTransferHandler(dropHandler);
+        new Timer(REFRESH_MILLIS, e -> queueModel.refresh()).start();
 
-        uploadButton.addActionListener(e -> fileProcessor.handleFileUpload(frame));
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        buttonPanel.add(uploadButton);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(cancelAllButton);
+        buttonPanel.add(clearButton);
 
-        mainPanel.add(headerLabel);
-        mainPanel.add(Box.createRigidArea(new Dimension(0, 15)));
-        mainPanel.add(uploadButton);
+        JPanel topPanel = new JPanel();
+        topPanel.setLayout(new BoxLayout(topPanel, BoxLayout.Y_AXIS));
+        headerLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        buttonPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        topPanel.add(headerLabel);
+        topPanel.add(Box.createRigidArea(new Dimension(0, 15)));
+        topPanel.add(buttonPanel);
+
+        mainPanel.add(topPanel, BorderLayout.NORTH);
+        mainPanel.add(tableScrollPane, BorderLayout.CENTER);
 
         frame.add(mainPanel);
         frame.setVisible(true);
     }
 
+    private void chooseFiles(JFrame frame) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setMultiSelectionEnabled(true);
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Excel files", "xls", "xlsx"));
+        if (fileChooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+            enqueue(Arrays.asList(fileChooser.getSelectedFiles()));
+        }
+    }
+
+    /**
+     * Queues the given files and the Excel files directly inside the given directories.
+     */
+    private void enqueue(List<File> files) {
+        try {
+            List<String> paths = files.stream().map(File::getPath).toList();
+            int queued = queueModel.add(BatchConverter.resolveInputs(paths));
+            LOGGER.info("Queued {} files for conversion", queued);
+        } catch (IOException e) {
+            LOGGER.error("Could not list the selected files", e);
+        }
+    }
+
+    /** Accepts files and folders dragged onto the window. */
+    private class FileDropHandler extends TransferHandler {
+
+        @Override
+        public boolean canImport(TransferSupport support) {
+            return support.isDataFlavorSupported(DataFlavor.javaFileListFlavor);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean importData(TransferSupport support) {
+            if (!canImport(support)) {
+                return false;
+            }
+            try {
+                enqueue((List<File>) support.getTransferable().getTransferData(DataFlavor.javaFileListFlavor));
+                return true;
+            } catch (UnsupportedFlavorException | IOException e) {
+                LOGGER.error("Could not read the dropped files", e);
+                return false;
+            }
+        }
+    }
+
+    /** Shows the progress column as a progress bar, left empty while the size of the sheet is unknown. */
+    private static class ProgressRenderer extends JProgressBar implements TableCellRenderer {
+
+        ProgressRenderer() {
+            super(0, 1000);
+            setStringPainted(true);
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            double progress = value instanceof Double fraction ? fraction : -1;
+            if (progress < 0) {
+                setValue(0);
+                setString("");
+            } else {
+                setValue((int) Math.round(progress * 1000));
+                setString(Math.round(progress * 100) + " %");
+            }
+            return this;
+        }
+    }
+
     private static JLabel createLabel(String text, int style, int size) {
         JLabel label = new JLabel(text);
         label.setFont(new Font("Arial", style, size));
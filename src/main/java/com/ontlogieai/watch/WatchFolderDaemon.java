@@ -0,0 +1,277 @@
+package com.ontlogieai.watch;
+
+import com.ontlogieai.Main;
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.config.ConfigurationWatcher;
+import com.ontlogieai.file.FileProcessor;
+import com.ontlogieai.file.FileUtil;
+import com.ontlogieai.metrics.ConversionStatistics;
+import com.ontlogieai.reference.ReferenceDataCache;
+import com.ontlogieai.transformation.ExcelProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Converts DVL files as soon as they are dropped into an inbox directory. A file is picked up once it has not
+ * changed for the debounce period, converted through {@link FileProcessor#processFile} on a worker pool, and the
+ * original is then moved to {@code inbox/done} or {@code inbox/failed}. Excel lock files are ignored.
+ */
+public class WatchFolderDaemon {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatchFolderDaemon.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 250;
+    private static final long STATS_INTERVAL_SECONDS = 60;
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String USAGE = "Usage: --watch <inbox> [--threads N] [--debounce-ms N]";
+
+    private final Path inbox;
+    private final Path doneDir;
+    private final Path failedDir;
+    private final long debounceMillis;
+    private final FileProcessor fileProcessor = new FileProcessor();
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Files seen but not yet stable, and files queued or being converted.
+    private final Map<Path, PendingFile> pending = new ConcurrentHashMap<>();
+    private final Set<Path> inProgress = ConcurrentHashMap.newKeySet();
+    // Output files claimed by conversions still running, so two drops of one name never share an output.
+    private final Set<File> claimedOutputs = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong converted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private long lastStatsCount;
+
+    /** Size and modification time at the last event or poll; the file is stable once both stop changing. */
+    private static final class PendingFile {
+        final long firstSeen = System.currentTimeMillis();
+        volatile long lastChange = firstSeen;
+        volatile long size = -1;
+        volatile long modified = -1;
+    }
+
+    public WatchFolderDaemon(Path inbox, int threads, long debounceMillis) {
+        this.inbox = inbox.toAbsolutePath();
+        this.doneDir = this.inbox.resolve("done");
+        this.failedDir = this.inbox.resolve("failed");
+        this.debounceMillis = debounceMillis;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Entry point for {@code Main --watch <inbox> [--threads N] [--debounce-ms N]}. Runs until the JVM is stopped.
+     */
+    public static int run(String[] args) {
+        Path inbox = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long debounceMillis = 2000;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--debounce-ms" -> debounceMillis = Long.parseLong(args[++i]);
+                    default -> inbox = Paths.get(args[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // A non-numeric or missing option value.
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (inbox == null) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            new WatchFolderDaemon(inbox, threads, debounceMillis).watch();
+            return 0;
+        } catch (IOException e) {
+            LOGGER.error("Could not watch {}", inbox, e);
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    public void watch() throws IOException, InterruptedException {
+        Files.createDirectories(doneDir);
+        Files.createDirectories(failedDir);
+        FileUtil.ensureDirectoryExists(Main.UPLOAD_DIR);
+        ReferenceDataCache.preload();
+        ConfigurationWatcher configurationWatcher = ConfigurationWatcher.start();
+        ConversionStatistics.get().startPeriodicDump(ConfigurationReader.getConfiguration().getMetricsDumpIntervalSeconds());
+
+        try (WatchService watchService = inbox.getFileSystem().newWatchService()) {
+            inbox.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, OVERFLOW);
+            LOGGER.info("Watching {} with {} workers, debounce {} ms", inbox, workers.getMaximumPoolSize(), debounceMillis);
+            scanInbox();
+            scheduler.scheduleWithFixedDelay(this::dispatchStableFiles, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            scheduler.scheduleAtFixedRate(this::logStats, STATS_INTERVAL_SECONDS, STATS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        LOGGER.warn("Watch events overflowed, rescanning {}", inbox);
+                        scanInbox();
+                    } else {
+                        seen(inbox.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    LOGGER.error("Inbox {} is no longer accessible", inbox);
+                    return;
+                }
+            }
+        } finally {
+            scheduler.shutdownNow();
+            workers.shutdown();
+            if (configurationWatcher != null) {
+                configurationWatcher.stop();
+            }
+        }
+    }
+
+    private void scanInbox() throws IOException {
+        try (Stream<Path> files = Files.list(inbox)) {
+            files.forEach(this::seen);
+        }
+    }
+
+    private void seen(Path path) {
+        if (!Files.isRegularFile(path) || !FileUtil.isExcelFile(path.toFile()) || inProgress.contains(path)) {
+            return;
+        }
+        pending.computeIfAbsent(path, p -> new PendingFile()).lastChange = System.currentTimeMillis();
+    }
+
+    /**
+     * Queues every pending file whose size and modification time have not changed for the debounce period, so
+     * files still being copied into the inbox are not read half-written.
+     */
+    private void dispatchStableFiles() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Path, PendingFile> entry : pending.entrySet()) {
+            Path path = entry.getKey();
+            PendingFile file = entry.getValue();
+            try {
+                if (!Files.exists(path)) {
+                    pending.remove(path);
+                    continue;
+                }
+                long size = Files.size(path);
+                long modified = Files.getLastModifiedTime(path).toMillis();
+                if (size != file.size || modified != file.modified) {
+                    file.size = size;
+                    file.modified = modified;
+                    file.lastChange = now;
+                } else if (now - file.lastChange >= debounceMillis && size > 0) {
+                    pending.remove(path);
+                    inProgress.add(path);
+                    workers.execute(() -> convert(path, file.firstSeen));
+                }
+            } catch (IOException e) {
+                // Still being written or already moved; try again on the next poll.
+                file.lastChange = now;
+            }
+        }
+    }
+
+    private void convert(Path path, long firstSeen) {
+        File outputFile = claimOutputFile(path);
+        try {
+            boolean success = fileProcessor.processFile(path.toFile(), outputFile);
+            Path target = moveTo(path, success ? doneDir : failedDir);
+            long latency = System.currentTimeMillis() - firstSeen;
+            if (success) {
+                converted.incrementAndGet();
+                totalLatencyMillis.addAndGet(latency);
+                LOGGER.info("Converted {} in {} ms from drop, original moved to {}", path.getFileName(), latency, target);
+            } else {
+                failed.incrementAndGet();
+                LOGGER.warn("Could not convert {}, original moved to {}", path.getFileName(), target);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not move {} out of the inbox", path, e);
+        } finally {
+            claimedOutputs.remove(outputFile);
+            inProgress.remove(path);
+            LOGGER.debug("Queue depth {}, active {}", workers.getQueue().size(), workers.getActiveCount());
+        }
+    }
+
+    /**
+     * Picks the output file for {@code input}, never one an earlier drop of the same name wrote or is writing:
+     * such a drop gets a timestamped output name, as {@link #moveTo} does for the original.
+     */
+    private File claimOutputFile(Path input) {
+        Configuration configuration = ConfigurationReader.getConfiguration();
+        String name = FileProcessor.getOutputFile(input.toFile()).getName();
+        String stamped = stamp(name);
+        for (int attempt = 0; ; attempt++) {
+            File candidate = new File(Main.UPLOAD_DIR, candidateName(name, stamped, attempt));
+            boolean written = configuration.getOutputFormats().stream()
+                    .anyMatch(format -> ExcelProcessor.outputFile(candidate, format, configuration.isGzipTextOutput()).exists());
+            if (!written && claimedOutputs.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * Moves {@code file} into {@code dir}, never over an existing file: a name already taken gets a timestamp
+     * suffix, and a counter when that is taken as well (several drops of the same name within a second).
+     */
+    private static Path moveTo(Path file, Path dir) throws IOException {
+        String name = file.getFileName().toString();
+        String stamped = stamp(name);
+        for (int attempt = 0; ; attempt++) {
+            Path target = dir.resolve(candidateName(name, stamped, attempt));
+            try {
+                return Files.move(file, target);
+            } catch (FileAlreadyExistsException e) {
+                // Taken, possibly by another worker moving a file of the same name just now; try the next name.
+            }
+        }
+    }
+
+    /** {@code name} with the current time appended to its stem. */
+    private static String stamp(String name) {
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name) + "-" + LocalDateTime.now().format(SUFFIX_FORMAT);
+    }
+
+    /** The name to try on {@code attempt}: the name itself, then the stamped name, then that with a counter. */
+    private static String candidateName(String name, String stamped, int attempt) {
+        int dot = name.lastIndexOf('.');
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return attempt == 0 ? name : attempt == 1 ? stamped + extension : stamped + "-" + attempt + extension;
+    }
+
+    private synchronized void logStats() {
+        long done = converted.get();
+        long perMinute = (done - lastStatsCount) * 60 / STATS_INTERVAL_SECONDS;
+        lastStatsCount = done;
+        LOGGER.info("Watch stats: {} converted, {} failed, {} files/min, avg drop-to-APL {} ms, {} waiting to settle, {} queued, {} converting",
+                done, failed.get(), perMinute, done == 0 ? 0 : totalLatencyMillis.get() / done,
+                pending.size(), workers.getQueue().size(), workers.getActiveCount());
+    }
+}
@@ -0,0 +1,92 @@
+package com.ontlogieai.input;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeaderRowDetectorTest {
+
+    private static final List<String> REQUIRED = List.of("Device Tag", "Point Descriptor");
+
+    private final RecordingHandler handler = new RecordingHandler();
+    private final HeaderRowDetector detector = new HeaderRowDetector(REQUIRED, handler);
+
+    @Test
+    void headerInFirstRow() {
+        assertTrue(detector.row(0, Map.of(0, "Nr", 1, "Device Tag", 2, "Point Descriptor")));
+        assertTrue(detector.row(1, Map.of(1, "TAG-1", 2, "First")));
+        assertTrue(detector.row(2, Map.of(1, "TAG-2", 2, "Second")));
+
+        assertEquals(DvlSheetReader.Result.COMPLETED, detector.finish());
+        assertEquals(List.of(1, 2), handler.header);
+        assertEquals(List.of(new DvlRow(0, "Device Tag", "Point Descriptor"), new DvlRow(1, "TAG-1", "First"),
+                new DvlRow(2, "TAG-2", "Second")), handler.rows);
+    }
+
+    @Test
+    void headerInSecondRowReplaysTheTitleRow() {
+        detector.row(0, Map.of(0, "Floor 6 DVL"));
+        detector.row(1, Map.of(3, "Device Tag", 5, "Point Descriptor"));
+        detector.row(2, Map.of(3, "TAG-1", 5, "First"));
+
+        assertEquals(DvlSheetReader.Result.COMPLETED, detector.finish());
+        assertEquals(List.of(3, 5), handler.header);
+        assertEquals(List.of(new DvlRow(0, "", ""), new DvlRow(1, "Device Tag", "Point Descriptor"),
+                new DvlRow(2, "TAG-1", "First")), handler.rows);
+    }
+
+    @Test
+    void skipsEmptyRows() {
+        detector.row(0, Map.of(0, "Device Tag", 1, "Point Descriptor"));
+        detector.row(1, Map.of(0, " ", 1, ""));
+        detector.row(2, Map.of(0, "TAG-1", 1, "First"));
+
+        detector.finish();
+        assertEquals(List.of(new DvlRow(0, "Device Tag", "Point Descriptor"), new DvlRow(2, "TAG-1", "First")), handler.rows);
+    }
+
+    @Test
+    void missingHeadersStopTheSheet() {
+        assertTrue(detector.row(0, Map.of(0, "Title")));
+        assertFalse(detector.row(1, Map.of(0, "Device Tag")));
+        assertFalse(detector.row(2, Map.of(0, "Device Tag", 1, "Point Descriptor")));
+
+        assertEquals(DvlSheetReader.Result.HEADERS_NOT_FOUND, detector.finish());
+        assertTrue(handler.rows.isEmpty());
+    }
+
+    @Test
+    void sheetWithOnlyAHeaderRow() {
+        detector.row(0, Map.of(0, "Device Tag", 1, "Point Descriptor"));
+
+        assertEquals(DvlSheetReader.Result.COMPLETED, detector.finish());
+        assertEquals(List.of(new DvlRow(0, "Device Tag", "Point Descriptor")), handler.rows);
+    }
+
+    private static final class RecordingHandler implements DvlRowHandler {
+
+        private final List<Integer> header = new ArrayList<>();
+        private final List<DvlRow> rows = new ArrayList<>();
+
+        @Override
+        public void startSheet() {
+        }
+
+        @Override
+        public void headerRow(int deviceTagColumnIndex, int pointDescriptorColumnIndex) {
+            header.add(deviceTagColumnIndex);
+            header.add(pointDescriptorColumnIndex);
+        }
+
+        @Override
+        public void row(DvlRow row) {
+            rows.add(row);
+        }
+    }
+}
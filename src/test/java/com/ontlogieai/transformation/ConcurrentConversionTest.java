@@ -0,0 +1,95 @@
+package com.ontlogieai.transformation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs conversions of the sample DVL files concurrently on one shared {@link ExcelProcessor} and compares every
+ * output part by part with the single-threaded output of the same file. docProps/core.xml carries the creation
+ * timestamp and is skipped.
+ */
+class ConcurrentConversionTest {
+
+    private static final String TIMESTAMPED_PART = "docProps/core.xml";
+    private static final int CONVERSIONS = 6;
+    private static final int THREADS = 3;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void concurrentOutputsMatchSingleThreadedOutputs() throws Exception {
+        File[] files = new File("data").listFiles((dir, name) -> name.endsWith(".xlsx") && !name.startsWith("~$"));
+        assertFalse(files == null || files.length == 0, "No sample .xlsx files in data/");
+        List<File> inputs = new ArrayList<>(List.of(files));
+        Collections.sort(inputs);
+
+        ExcelProcessor processor = new ExcelProcessor();
+        Map<File, Map<String, byte[]>> expectedParts = new HashMap<>();
+        for (File input : inputs) {
+            File output = workDir.resolve("expected_" + input.getName()).toFile();
+            processor.readAndWriteExcelFile(input, output);
+            expectedParts.put(input, readParts(output));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(CONVERSIONS);
+            for (int i = 0; i < CONVERSIONS; i++) {
+                File input = inputs.get(i % inputs.size());
+                File output = workDir.resolve("run" + i + "_" + input.getName()).toFile();
+                futures.add(executor.submit(() -> {
+                    processor.readAndWriteExcelFile(input, output);
+                    assertSameParts(input.getName(), expectedParts.get(input), readParts(output));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertSameParts(String name, Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        assertEquals(expected.keySet(), actual.keySet(), "Parts of " + name);
+        for (Map.Entry<String, byte[]> part : expected.entrySet()) {
+            assertArrayEquals(part.getValue(), actual.get(part.getKey()), "Concurrent output of " + name + " differs in " + part.getKey());
+        }
+    }
+
+    private static Map<String, byte[]> readParts(File xlsx) throws IOException {
+        Map<String, byte[]> parts = new TreeMap<>();
+        try (ZipFile zip = new ZipFile(xlsx)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (TIMESTAMPED_PART.equals(entry.getName())) continue;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    parts.put(entry.getName(), in.readAllBytes());
+                }
+            }
+        }
+        return parts;
+    }
+}
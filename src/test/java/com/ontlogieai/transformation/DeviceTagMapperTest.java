@@ -0,0 +1,51 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.Configuration;
+import com.ontlogieai.config.ConfigurationReader;
+import com.ontlogieai.metrics.ConversionMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeviceTagMapperTest {
+
+    private final Configuration configuration = ConfigurationReader.getConfiguration();
+
+    @Test
+    void rowsForDifferentRoomsShareACacheEntry() {
+        DeviceTagMapper mapper = new DeviceTagMapper();
+        ConversionMetrics metrics = new ConversionMetrics("test");
+
+        TagResolution first = mapper.resolve(configuration, "J460-01-2TC-601",
+                "J460-01-2TC-601 - Room J6.01 - Room Controller - Setpoint", metrics);
+        TagResolution second = mapper.resolve(configuration, "J460-01-2TC-617",
+                "J460-01-2TC-617 - Room J6.17 - Room Controller - Setpoint", metrics);
+
+        assertEquals(new TagResolution("Room Controller", "J460-01-2TC-601"), first);
+        assertEquals(first, second);
+        assertEquals(1, metrics.getResolutionCacheMisses());
+        assertEquals(1, metrics.getResolutionCacheHits());
+    }
+
+    @Test
+    void cachedResolutionsMatchTheCompiledLookup() {
+        DeviceTagMapper mapper = new DeviceTagMapper();
+        CompiledConfiguration compiled = CompiledConfiguration.of(configuration);
+        String[][] rows = {
+                {"J460-01-2TC-601", "J460-01-2TC-601 - Room J6.01 - Room Controller - Setpoint"},
+                {"J460-01-2TC-602", "J460-01-2TC-602 - Room J6.02 - Temperature"},
+                {"J460-01-2TC-603", "J460-01-2TC-603 - Room J6.03 - Room Controller"},
+                {"J460-01-2FT-101", "J460-01-2FT-101 - Supply Air Flow"},
+                {"J460-01-2FT-102", "J460-01-2FT-102 - Exhaust Air Flow"},
+                {"UNKNOWN-1", "UNKNOWN-1 - Room 7"},
+        };
+        for (int pass = 0; pass < 2; pass++) {
+            for (String[] row : rows) {
+                String deviceType = compiled.deviceType(row[0]);
+                String key = compiled.descriptorKey(deviceType, row[1]);
+                TagResolution expected = new TagResolution(key, compiled.standardDeviceTag(deviceType, key));
+                assertEquals(expected, mapper.resolve(configuration, row[0], row[1]), row[1]);
+            }
+        }
+    }
+}
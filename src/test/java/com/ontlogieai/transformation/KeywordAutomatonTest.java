@@ -0,0 +1,59 @@
+package com.ontlogieai.transformation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeywordAutomatonTest {
+
+    @Test
+    void firstListedKeywordWinsWhereverItAppears() {
+        KeywordAutomaton automaton = KeywordAutomaton.inPriorityOrder(List.of("Supply Air Flow", "Chilled Water", "Hot Water"));
+
+        assertEquals("Chilled Water", automaton.findBest("Hot Water and Chilled Water"));
+        assertEquals("Supply Air Flow", automaton.findBest("Chilled Water - Supply Air Flow"));
+        assertNull(automaton.findBest("Exhaust Fan"));
+    }
+
+    @Test
+    void findsKeywordsThatEndInsideOthers() {
+        KeywordAutomaton automaton = KeywordAutomaton.inPriorityOrder(List.of("hers", "she", "he"));
+
+        assertEquals("hers", automaton.findBest("ushers"));
+        assertEquals("she", automaton.findBest("ushe"));
+        assertEquals("he", automaton.findBest("the"));
+    }
+
+    @Test
+    void longestFirstPrefersLongerKeywords() {
+        KeywordAutomaton automaton = KeywordAutomaton.longestFirst(List.of("Pressure", "Compressed Air - Pressure", "Air"));
+
+        assertEquals("Compressed Air - Pressure", automaton.findBest("J460 - Compressed Air - Pressure"));
+        assertEquals("Pressure", automaton.findBest("Demi Water - Pressure"));
+    }
+
+    @Test
+    void emptyAutomatonMatchesNothing() {
+        assertNull(KeywordAutomaton.empty().findBest("anything"));
+        assertNull(KeywordAutomaton.inPriorityOrder(List.of("x")).findBest(""));
+    }
+
+    @Test
+    void agreesWithScanningTheKeywordsInOrder() {
+        List<String> keywords = List.of("abc", "bca", "ca", "aab", "b", "cab");
+        KeywordAutomaton automaton = KeywordAutomaton.inPriorityOrder(keywords);
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int length = random.nextInt(8); length > 0; length--) {
+                text.append("abcx".charAt(random.nextInt(4)));
+            }
+            String expected = keywords.stream().filter(keyword -> text.indexOf(keyword) >= 0).findFirst().orElse(null);
+            assertEquals(expected, automaton.findBest(text), "text " + text);
+        }
+    }
+}
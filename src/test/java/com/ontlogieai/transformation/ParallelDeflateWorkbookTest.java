@@ -0,0 +1,97 @@
+package com.ontlogieai.transformation;
+
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class ParallelDeflateWorkbookTest {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void usesTheParallelWriterByDefault() {
+        ParallelDeflateWorkbook workbook = new ParallelDeflateWorkbook(100, Deflater.NO_COMPRESSION, 2);
+        try {
+            assertInstanceOf(ParallelZipOutputStream.class, workbook.createArchiveOutputStream(OutputStream.nullOutputStream()));
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    @Test
+    void levelZeroStoresEveryPart() throws IOException {
+        File output = write(Deflater.NO_COMPRESSION);
+        assertEveryEntry(output, ZipEntry.STORED);
+        assertReadable(output);
+    }
+
+    @Test
+    void otherLevelsDeflateEveryPart() throws IOException {
+        File output = write(Deflater.BEST_SPEED);
+        assertEveryEntry(output, ZipEntry.DEFLATED);
+        assertReadable(output);
+    }
+
+    @Test
+    void zip64AlwaysKeepsPoisWriter() {
+        ParallelDeflateWorkbook workbook = new ParallelDeflateWorkbook(100, Deflater.NO_COMPRESSION, 2);
+        try {
+            workbook.setZip64Mode(Zip64Mode.Always);
+            assertFalse(workbook.createArchiveOutputStream(OutputStream.nullOutputStream()) instanceof ParallelZipOutputStream);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private File write(int compressionLevel) throws IOException {
+        File output = workDir.resolve("level" + compressionLevel + ".xlsx").toFile();
+        ParallelDeflateWorkbook workbook = new ParallelDeflateWorkbook(100, compressionLevel, 2);
+        try (FileOutputStream out = new FileOutputStream(output)) {
+            for (int s = 0; s < 2; s++) {
+                Sheet sheet = workbook.createSheet("Sheet" + s);
+                for (int r = 0; r < 500; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue("row " + r);
+                    row.createCell(1).setCellValue(r);
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+        }
+        return output;
+    }
+
+    private static void assertEveryEntry(File xlsx, int method) throws IOException {
+        try (ZipFile zip = new ZipFile(xlsx)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                assertEquals(method, entry.getMethod(), entry.getName());
+            }
+        }
+    }
+
+    private static void assertReadable(File xlsx) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(xlsx, null, true)) {
+            assertEquals("row 499", workbook.getSheet("Sheet1").getRow(499).getCell(0).getStringCellValue());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ontlogieai.transformation;
+
+import com.ontlogieai.config.ConfigurationReader;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PointDescriptionRewriterTest {
+
+    private final PointDescriptionRewriter rewriter = new PointDescriptionRewriter(ConfigurationReader.getConfiguration());
+
+    @Test
+    void replacesThePrefixUpToTheDescriptorKey() {
+        assertEquals("J460-01-2TC-605 - Room J6.07 - Room Controller - Setpoint",
+                rewriter.rewrite("Room Controller", "J460-01-2TC-605 - Room J6.07 - Room Controller",
+                        "J460-01-2TC-601 - Room J6.01 - Room Controller - Setpoint"));
+    }
+
+    @Test
+    void leavesTargetsWithoutTheKeyUnchanged() {
+        String target = "J460-01-2TC-601 - Room J6.01 - Setpoint";
+        assertEquals(target, rewriter.rewrite("Room Controller", "J460-01-2TC-605 - Room Controller", target));
+    }
+
+    @Test
+    void emptyKeyReplacesThroughTheFirstSeparator() {
+        assertEquals("NEW Room J6.01 - Alarm", rewriter.rewrite("", "NEW ", "OLD - Room J6.01 - Alarm"));
+    }
+
+    @Test
+    void matchesKeysAndInsertsDescriptionsLiterally() {
+        assertEquals("Valve $1 (A) - Feedback",
+                rewriter.rewrite("Valve (A)", "Valve $1 (A)", "X - Valve (A) - Feedback"));
+        assertEquals("X - Valve A - Feedback", rewriter.rewrite("Valve (A)", "Valve $1 (A)", "X - Valve A - Feedback"));
+    }
+
+    @Test
+    void reusedMatcherGivesTheSameResults() {
+        Matcher matcher = rewriter.matcher("Room Controller");
+        assertEquals("A - Room Controller - 1", PointDescriptionRewriter.rewrite(matcher, "A - Room Controller", "Z - Room Controller - 1"));
+        assertEquals("Z - 2", PointDescriptionRewriter.rewrite(matcher, "A - Room Controller", "Z - 2"));
+        assertEquals("B - Room Controller - 3", PointDescriptionRewriter.rewrite(matcher, "B - Room Controller", "Y - Room Controller - 3"));
+    }
+}